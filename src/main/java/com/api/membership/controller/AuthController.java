@@ -5,6 +5,7 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.api.membership.model.User;
@@ -13,21 +14,29 @@ import com.api.membership.model.response.TokenResponse;
 import com.api.membership.model.response.WebResponse;
 import com.api.membership.service.AuthService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 public class AuthController {
 
     @Autowired
     private AuthService authService;
 
+    /**
+     * Logs in, throttled by username and client address. The address is the remote address of the
+     * request, which Tomcat replaces with the client from {@code X-Forwarded-For} only when the
+     * connection comes from one of {@code server.tomcat.remoteip.internal-proxies}. Behind a load
+     * balancer that list must hold the balancer's addresses, or every client shares its budget.
+     */
     @PostMapping(path = "/api/auth/login", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public WebResponse<TokenResponse> login(@RequestBody LoginUserRequest request) {
-        TokenResponse tokenResponse = authService.login(request);
+    public WebResponse<TokenResponse> login(@RequestBody LoginUserRequest request, HttpServletRequest servletRequest) {
+        TokenResponse tokenResponse = authService.login(request, servletRequest.getRemoteAddr());
         return WebResponse.<TokenResponse>builder().data(tokenResponse).build();
     }
 
     @DeleteMapping(path = "/api/auth/logout", produces = MediaType.APPLICATION_JSON_VALUE)
-    public WebResponse<String> logout(User user) {
-        authService.logout(user);
+    public WebResponse<String> logout(User user, @RequestHeader("X-API-TOKEN") String token) {
+        authService.logout(user, token);
         return WebResponse.<String>builder().data("OK").build();
     }
 }
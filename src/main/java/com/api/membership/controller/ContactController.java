@@ -1,10 +1,18 @@
 package com.api.membership.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -13,31 +21,55 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.api.membership.model.User;
+import com.api.membership.model.request.BulkContactRequest;
+import com.api.membership.model.request.BulkUpdateContactRequest;
 import com.api.membership.model.request.CreateContactRequest;
 import com.api.membership.model.request.SearchContactRequest;
 import com.api.membership.model.request.UpdateContactRequest;
+import com.api.membership.model.response.BulkContactResponse;
 import com.api.membership.model.response.ContactResponse;
+import com.api.membership.model.response.ImportContactResponse;
 import com.api.membership.model.response.PagingResponse;
 import com.api.membership.model.response.WebResponse;
 import com.api.membership.service.ContactService;
+import com.api.membership.service.bulk.ContactImporter;
+import com.api.membership.service.export.ContactExporter;
 
 @RestController
 public class ContactController {
 
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
     @Autowired
     private ContactService contactService;
 
+    @Autowired
+    private ContactExporter contactExporter;
+
+    @Autowired
+    private ContactImporter contactImporter;
+
     @PostMapping(path = "/api/contacts", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public WebResponse<ContactResponse> create(User user, @RequestBody CreateContactRequest request) {
         ContactResponse contactResponse = contactService.create(user, request);
         return WebResponse.<ContactResponse>builder().data(contactResponse).build();
     }
 
+    @PostMapping(path = "/api/contacts/import", consumes = { MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE }, produces = MediaType.APPLICATION_JSON_VALUE)
+    public WebResponse<ImportContactResponse> importContacts(User user, InputStream body) throws IOException {
+        ImportContactResponse importContactResponse = contactImporter.importContacts(user, body);
+        return WebResponse.<ImportContactResponse>builder().data(importContactResponse).build();
+    }
+
     @GetMapping(path = "/api/contacts/{contactId}", produces = MediaType.APPLICATION_JSON_VALUE)
-    public WebResponse<ContactResponse> get(User user, @PathVariable("contactId") String contactId) {
-        ContactResponse contactResponse = contactService.get(user, contactId);
+    public WebResponse<ContactResponse> get(User user, @PathVariable("contactId") String contactId,
+            @RequestParam(value = "addresses", required = false, defaultValue = "false") boolean addresses) {
+        ContactResponse contactResponse = contactService.get(user, contactId, addresses);
         return WebResponse.<ContactResponse>builder().data(contactResponse).build();
     }
 
@@ -55,29 +87,112 @@ public class ContactController {
         return WebResponse.<String>builder().data("OK").build();
     }
 
+    @PostMapping(path = "/api/contacts/bulk-delete", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public WebResponse<BulkContactResponse> bulkDelete(User user, @RequestBody BulkContactRequest request) {
+        BulkContactResponse bulkContactResponse = contactService.bulkDelete(user, request);
+        return WebResponse.<BulkContactResponse>builder().data(bulkContactResponse).build();
+    }
+
+    @PostMapping(path = "/api/contacts/bulk-update", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public WebResponse<BulkContactResponse> bulkUpdate(User user, @RequestBody BulkUpdateContactRequest request) {
+        BulkContactResponse bulkContactResponse = contactService.bulkUpdate(user, request);
+        return WebResponse.<BulkContactResponse>builder().data(bulkContactResponse).build();
+    }
+
     @GetMapping(path = "/api/contacts", produces = MediaType.APPLICATION_JSON_VALUE)
     public WebResponse<List<ContactResponse>> search(User user,
             @RequestParam(value = "name", required = false) String name,
             @RequestParam(value = "email", required = false) String email,
             @RequestParam(value = "phone", required = false) String phone,
             @RequestParam(value = "page", required = false, defaultValue = "0") Integer page,
-            @RequestParam(value = "size", required = false, defaultValue = "10") Integer size) {
+            @RequestParam(value = "size", required = false, defaultValue = "10") Integer size,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "total", required = false, defaultValue = "exact") String total,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "addresses", required = false, defaultValue = "false") boolean addresses) {
         SearchContactRequest request = SearchContactRequest.builder()
                 .page(page)
                 .size(size)
                 .name(name)
                 .email(email)
                 .phone(phone)
+                .after(after)
+                .total(parseTotal(total))
+                .addresses(addresses)
                 .build();
+        if (sort != null) {
+            parseSort(sort, request);
+        }
 
-        Page<ContactResponse> contactResponses = contactService.search(user, request);
+        Slice<ContactResponse> contactResponses = contactService.search(user, request);
         return WebResponse.<List<ContactResponse>>builder()
                 .data(contactResponses.getContent())
                 .paging(PagingResponse.builder()
                         .currentPage(contactResponses.getNumber())
-                        .totalPage(contactResponses.getTotalPages())
+                        .totalPage(contactResponses instanceof Page<ContactResponse> contactPage
+                                ? contactPage.getTotalPages()
+                                : null)
                         .size(contactResponses.getSize())
+                        .hasNext(contactResponses.hasNext())
+                        .nextCursor(contactService.nextCursor(request, contactResponses))
                         .build())
                 .build();
     }
+
+    @GetMapping(path = "/api/contacts/export")
+    public ResponseEntity<StreamingResponseBody> export(User user,
+            @RequestParam(value = "format", required = false, defaultValue = "ndjson") String format,
+            @RequestParam(value = "addresses", required = false, defaultValue = "false") boolean addresses) {
+        ContactExporter.Format exportFormat = parseFormat(format);
+        StreamingResponseBody body = outputStream -> contactExporter.export(user, exportFormat, addresses,
+                outputStream);
+        return ResponseEntity.ok()
+                .contentType(exportFormat == ContactExporter.Format.CSV ? CSV : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"contacts." + exportFormat.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(body);
+    }
+
+    private SearchContactRequest.Total parseTotal(String total) {
+        try {
+            return SearchContactRequest.Total.valueOf(total.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "total must be exact, estimate or none");
+        }
+    }
+
+    /**
+     * Reads {@code field} or {@code field,asc|desc}, where field is one of firstName, lastName, email
+     * and createdAt.
+     */
+    private void parseSort(String sort, SearchContactRequest request) {
+        String[] parts = sort.split(",", -1);
+        SearchContactRequest.SortField field = null;
+        for (SearchContactRequest.SortField candidate : SearchContactRequest.SortField.values()) {
+            if (candidate.getProperty().equalsIgnoreCase(parts[0].strip())) {
+                field = candidate;
+            }
+        }
+        if (field == null || parts.length > 2) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "sort must be firstName, lastName, email or createdAt, optionally followed by ,asc or ,desc");
+        }
+
+        request.setSort(field);
+        if (parts.length == 2) {
+            try {
+                request.setDirection(Sort.Direction.fromString(parts[1].strip()));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sort direction must be asc or desc");
+            }
+        }
+    }
+
+    private ContactExporter.Format parseFormat(String format) {
+        try {
+            return ContactExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be ndjson or csv");
+        }
+    }
 }
@@ -1,13 +1,30 @@
 package com.api.membership.model;
 
 import java.util.List;
+import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.api.membership.service.cache.ContactSearchCache;
+import com.api.membership.service.cache.SecondLevelCache;
+import com.api.membership.service.search.ContactNgramIndex;
+import com.api.membership.service.search.PhoneNumbers;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -19,11 +36,23 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "contacts")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCache.CONTACTS)
+@EntityListeners({ ContactNgramIndex.class, ContactSearchCache.class })
+@Table(name = "contacts", indexes = {
+        @Index(name = "idx_contacts_username_phone_digits", columnList = "username, phone_digits"),
+        @Index(name = "idx_contacts_username_phone_digits_reversed", columnList = "username, phone_digits_reversed"),
+        @Index(name = "idx_contacts_username_first_name", columnList = "username, first_name, id"),
+        @Index(name = "idx_contacts_username_last_name", columnList = "username, last_name, id"),
+        @Index(name = "idx_contacts_username_email", columnList = "username, email, id"),
+        @Index(name = "idx_contacts_username_created_at", columnList = "username, created_at, id")
+})
 public class Contact {
 
     @Id
-    private String id;
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(columnDefinition = "BINARY(16)")
+    private UUID id;
 
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -33,12 +62,35 @@ public class Contact {
 
     private String phone;
 
+    @Column(name = "phone_digits", length = 100)
+    private String phoneDigits;
+
+    @Column(name = "phone_digits_reversed", length = 100)
+    private String phoneDigitsReversed;
+
     private String email;
 
-    @ManyToOne
+    @Column(name = "created_at", nullable = false)
+    private Long createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "username", referencedColumnName = "username", nullable = false)
     private User user;
 
-    @OneToMany(mappedBy = "contact")
+    @OneToMany(mappedBy = "contact", fetch = FetchType.LAZY)
     private List<Address> addresses;
+
+    @PrePersist
+    void prePersist() {
+        if (createdAt == null) {
+            createdAt = System.currentTimeMillis();
+        }
+        normalizePhone();
+    }
+
+    @PreUpdate
+    void normalizePhone() {
+        phoneDigits = PhoneNumbers.normalize(phone);
+        phoneDigitsReversed = PhoneNumbers.reverse(phoneDigits);
+    }
 }
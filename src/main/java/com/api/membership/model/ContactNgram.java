@@ -0,0 +1,66 @@
+package com.api.membership.model;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One trigram of a searchable contact field. Rows are written by
+ * {@link com.api.membership.service.search.ContactNgramIndex} and only read through criteria
+ * subqueries.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@IdClass(ContactNgram.Key.class)
+@Table(name = "contact_ngrams", indexes = {
+        @Index(name = "idx_contact_ngrams_contact_id", columnList = "contact_id")
+})
+public class ContactNgram {
+
+    @Id
+    private String username;
+
+    @Id
+    @Column(columnDefinition = "CHAR(1)")
+    private String field;
+
+    @Id
+    @Column(length = 3)
+    private String ngram;
+
+    @Id
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "contact_id", columnDefinition = "BINARY(16)")
+    private UUID contactId;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+
+        private String username;
+
+        private String field;
+
+        private String ngram;
+
+        private UUID contactId;
+    }
+}
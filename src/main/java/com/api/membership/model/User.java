@@ -2,11 +2,24 @@ package com.api.membership.model;
 
 import java.util.List;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.api.membership.service.cache.SecondLevelCache;
+import com.api.membership.service.security.TokenHash;
+
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,7 +30,12 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "users")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCache.USERS)
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_token_expired_at", columnList = "token_expired_at")
+})
 public class User {
 
     @Id
@@ -30,12 +48,24 @@ public class User {
     @Column(nullable = false)
     private String name;
 
-    @Column(unique = true)
     private String token;
 
+    @Column(name = "token_hash", unique = true, columnDefinition = "BINARY(16)")
+    private byte[] tokenHash;
+
     @Column(name = "token_expired_at")
     private Long tokenExpiredAt;
 
-    @OneToMany(mappedBy = "user")
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    @OneToMany(mappedBy = "user", fetch = FetchType.LAZY)
     private List<Contact> contacts;
+
+    @PrePersist
+    @PreUpdate
+    void hashToken() {
+        tokenHash = token == null ? null : TokenHash.of(token);
+    }
 }
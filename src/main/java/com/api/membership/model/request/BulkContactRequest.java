@@ -0,0 +1,28 @@
+package com.api.membership.model.request;
+
+import java.util.List;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Selects contacts of the user for a bulk operation by id, by the search filters, or both.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkContactRequest {
+
+    @Size(max = 10000)
+    private List<String> ids;
+
+    private String name;
+
+    private String email;
+
+    private String phone;
+}
@@ -1,5 +1,7 @@
 package com.api.membership.model.request;
 
+import org.springframework.data.domain.Sort;
+
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +13,32 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 public class SearchContactRequest {
+
+    /**
+     * How the total number of matches is reported: counted exactly, estimated from a recent count,
+     * or not at all.
+     */
+    public enum Total {
+        EXACT, ESTIMATE, NONE
+    }
+
+    /**
+     * Fields results can be sorted on, each backed by a {@code (username, column, id)} index. Ties are
+     * broken by id in the same direction.
+     */
+    public enum SortField {
+        FIRST_NAME("firstName"), LAST_NAME("lastName"), EMAIL("email"), CREATED_AT("createdAt");
+
+        private final String property;
+
+        SortField(String property) {
+            this.property = property;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+    }
     
     private String name;
     
@@ -18,6 +46,16 @@ public class SearchContactRequest {
 
     private String phone;
 
+    private String after;
+
+    private Total total;
+
+    private SortField sort;
+
+    private Sort.Direction direction;
+
+    private boolean addresses;
+
     @NotNull
     private Integer page;
 
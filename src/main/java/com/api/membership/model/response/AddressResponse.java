@@ -1,5 +1,7 @@
 package com.api.membership.model.response;
 
+import java.util.UUID;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -22,4 +24,12 @@ public class AddressResponse {
     private String country;
 
     private String postalCode;
+
+    /**
+     * Used by query constructor expressions, so reads are projected straight into the response.
+     */
+    public AddressResponse(UUID id, String street, String city, String province, String country,
+            String postalCode) {
+        this(id.toString(), street, city, province, country, postalCode);
+    }
 }
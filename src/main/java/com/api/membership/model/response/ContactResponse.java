@@ -1,5 +1,10 @@
 package com.api.membership.model.response;
 
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,4 +21,15 @@ public class ContactResponse {
     private String lastName;
     private String email;
     private String phone;
+    private Long createdAt;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<AddressResponse> addresses;
+
+    /**
+     * Used by query constructor expressions, so reads are projected straight into the response.
+     */
+    public ContactResponse(UUID id, String firstName, String lastName, String email, String phone, Long createdAt) {
+        this(id.toString(), firstName, lastName, email, phone, createdAt, null);
+    }
 }
@@ -0,0 +1,16 @@
+package com.api.membership.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportContactError {
+
+    private Integer row;
+    private String errors;
+}
@@ -0,0 +1,19 @@
+package com.api.membership.model.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportContactResponse {
+
+    private Integer imported;
+    private Integer failed;
+    private List<ImportContactError> errors;
+}
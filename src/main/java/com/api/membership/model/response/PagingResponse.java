@@ -14,5 +14,7 @@ public class PagingResponse {
     private Integer currentPage;
     private Integer totalPage;
     private Integer size;
+    private Boolean hasNext;
+    private String nextCursor;
 
 }
@@ -1,18 +1,51 @@
 package com.api.membership.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.api.membership.model.Address;
 import com.api.membership.model.Contact;
+import com.api.membership.model.User;
+import com.api.membership.model.response.AddressResponse;
 
 @Repository
-public interface AddressRepository extends JpaRepository<Address, String> {
-
-    Optional<Address> findFirstByContactAndId(Contact contact, String id);
+public interface AddressRepository extends JpaRepository<Address, UUID> {
 
     List<Address> findAllByContact(Contact contact);
+
+    @Query("select new com.api.membership.model.response.AddressResponse(a.id, a.street, a.city, a.province, a.country, a.postalCode) "
+            + "from Address a join a.contact c where c.user = :user and c.id = :contactId and a.id = :id")
+    Optional<AddressResponse> findResponseByUserAndContactIdAndId(User user, UUID contactId, UUID id);
+
+    @Query("select new com.api.membership.model.response.AddressResponse(a.id, a.street, a.city, a.province, a.country, a.postalCode) "
+            + "from Address a where a.contact.id = :contactId")
+    List<AddressResponse> findAllResponsesByContactId(UUID contactId);
+
+    @Query("select new com.api.membership.model.response.AddressResponse(a.id, a.street, a.city, a.province, a.country, a.postalCode) "
+            + "from Address a join a.contact c where c.user = :user and c.id = :contactId")
+    List<AddressResponse> findAllResponsesByUserAndContactId(User user, UUID contactId);
+
+    @Modifying
+    @Query("update Address a set a.street = :street, a.city = :city, a.province = :province, a.country = :country, "
+            + "a.postalCode = :postalCode where a.id = :id and a.contact.id in "
+            + "(select c.id from Contact c where c.user = :user and c.id = :contactId)")
+    int updateByUserAndContactIdAndId(User user, UUID contactId, UUID id, String street, String city, String province,
+            String country, String postalCode);
+
+    @Modifying
+    @Query("delete from Address a where a.id = :id and a.contact.id in "
+            + "(select c.id from Contact c where c.user = :user and c.id = :contactId)")
+    int deleteByUserAndContactIdAndId(User user, UUID contactId, UUID id);
+
+    @Modifying
+    @Query("delete from Address a where a.contact.id in "
+            + "(select c.id from Contact c where c.user = :user and c.id in :contactIds)")
+    int deleteAllByUserAndContactIdIn(User user, Collection<UUID> contactIds);
 }
@@ -0,0 +1,17 @@
+package com.api.membership.repository;
+
+import java.util.UUID;
+
+import com.api.membership.model.response.AddressResponse;
+
+/**
+ * An address read together with the id of its contact, so addresses of many contacts can be loaded
+ * in one query and handed back to their contacts.
+ */
+public record ContactAddress(UUID contactId, UUID id, String street, String city, String province, String country,
+        String postalCode) {
+
+    public AddressResponse toResponse() {
+        return new AddressResponse(id, street, city, province, country, postalCode);
+    }
+}
@@ -1,16 +1,60 @@
 package com.api.membership.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.api.membership.model.Contact;
 import com.api.membership.model.User;
+import com.api.membership.model.response.ContactResponse;
+import com.api.membership.service.cache.SecondLevelCache;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
-public interface ContactRepository extends JpaRepository<Contact, String>, JpaSpecificationExecutor<Contact> {
+public interface ContactRepository extends JpaRepository<Contact, UUID>, JpaSpecificationExecutor<Contact>,
+        ContactSearchRepository {
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCache.CONTACT_QUERIES) })
+    Optional<Contact> findFirstByUserAndId(User user, UUID id);
+
+    boolean existsByUserAndId(User user, UUID id);
+
+    @Query("select new com.api.membership.model.response.ContactResponse(c.id, c.firstName, c.lastName, c.email, c.phone, "
+            + "c.createdAt) "
+            + "from Contact c where c.user = :user and c.id = :id")
+    Optional<ContactResponse> findResponseByUserAndId(User user, UUID id);
+
+    /**
+     * Reads the addresses of several of the user's contacts through {@code Contact.addresses} in one
+     * query, for embedding them in a page of responses.
+     */
+    @Query("select new com.api.membership.repository.ContactAddress(c.id, a.id, a.street, a.city, a.province, "
+            + "a.country, a.postalCode) from Contact c join c.addresses a where c.user = :user and c.id in :ids "
+            + "order by a.id")
+    List<ContactAddress> findAddressesByUserAndIdIn(User user, Collection<UUID> ids);
+
+    @Modifying
+    @Query("delete from Contact c where c.user = :user and c.id in :ids")
+    int deleteAllByUserAndIdIn(User user, Collection<UUID> ids);
 
-    Optional<Contact> findFirstByUserAndId(User user, String id);
+    @Modifying
+    @Query("update Contact c set c.firstName = coalesce(:firstName, c.firstName), "
+            + "c.lastName = coalesce(:lastName, c.lastName), c.email = coalesce(:email, c.email), "
+            + "c.phone = coalesce(:phone, c.phone), c.phoneDigits = coalesce(:phoneDigits, c.phoneDigits), "
+            + "c.phoneDigitsReversed = coalesce(:phoneDigitsReversed, c.phoneDigitsReversed) "
+            + "where c.user = :user and c.id in :ids")
+    int updateAllByUserAndIdIn(User user, Collection<UUID> ids, String firstName, String lastName, String email,
+            String phone, String phoneDigits, String phoneDigitsReversed);
 }
@@ -0,0 +1,32 @@
+package com.api.membership.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.api.membership.model.Contact;
+import com.api.membership.model.response.ContactResponse;
+
+public interface ContactSearchRepository {
+
+    /**
+     * Reads one page of responses without counting the matches. One row beyond the page is fetched
+     * to tell whether another page follows.
+     */
+    Slice<ContactResponse> findSlice(Specification<Contact> specification, Pageable pageable);
+
+    /**
+     * Reads one page of responses together with the total number of matches.
+     */
+    Page<ContactResponse> findPage(Specification<Contact> specification, Pageable pageable);
+
+    /**
+     * Reads the ids of the first matches in id order, for operations that work through the matches
+     * in chunks.
+     */
+    List<UUID> findIds(Specification<Contact> specification, int limit);
+}
@@ -0,0 +1,95 @@
+package com.api.membership.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.api.membership.model.Contact;
+import com.api.membership.model.response.ContactResponse;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Runs contact searches as constructor projections, so rows go straight into {@link ContactResponse}
+ * without entities, their eager associations or dirty-checking snapshots in the persistence context.
+ */
+public class ContactSearchRepositoryImpl implements ContactSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<ContactResponse> findSlice(Specification<Contact> specification, Pageable pageable) {
+        List<ContactResponse> contacts = find(specification, pageable, pageable.getPageSize() + 1);
+
+        boolean hasNext = contacts.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? contacts.subList(0, pageable.getPageSize()) : contacts, pageable, hasNext);
+    }
+
+    @Override
+    public Page<ContactResponse> findPage(Specification<Contact> specification, Pageable pageable) {
+        List<ContactResponse> contacts = find(specification, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(contacts, pageable, () -> count(specification));
+    }
+
+    @Override
+    public List<UUID> findIds(Specification<Contact> specification, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = builder.createQuery(UUID.class);
+        Root<Contact> root = query.from(Contact.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root.get("id"));
+        query.orderBy(builder.asc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private List<ContactResponse> find(Specification<Contact> specification, Pageable pageable, int maxResults) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ContactResponse> query = builder.createQuery(ContactResponse.class);
+        Root<Contact> root = query.from(Contact.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(builder.construct(ContactResponse.class,
+                root.get("id"), root.get("firstName"), root.get("lastName"), root.get("email"), root.get("phone"),
+                root.get("createdAt")));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    private long count(Specification<Contact> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Contact> root = query.from(Contact.class);
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(builder.count(root));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
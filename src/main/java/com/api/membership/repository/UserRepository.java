@@ -2,13 +2,59 @@ package com.api.membership.repository;
 
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.api.membership.model.User;
 
+import jakarta.persistence.QueryHint;
+
+/**
+ * Users are looked up in read-write transactions so the lookups stay on the primary. A user who has
+ * just registered or logged in must be found on the very next request, before replicas catch up.
+ * <p>
+ * The token lookup is deliberately not a cacheable query. The query cache is per instance, so a
+ * token revoked on one instance would keep resolving on the others until the entry expired.
+ * <p>
+ * Changes to a user who came in through a token are written with targeted updates. The {@code User}
+ * behind a token is a detached copy that can be older than the row, and saving it would write every
+ * stale column back.
+ */
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
 
-    Optional<User> findFirstByToken(String token);
+    @Override
+    @Transactional
+    Optional<User> findById(String username);
+
+    /**
+     * Reads the row itself and refreshes the second-level cache entry with it. Use it where the user
+     * is about to be checked or written, as the cached entry may predate a change made on another
+     * instance.
+     */
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "REFRESH"))
+    @Query("select u from User u where u.username = :username")
+    Optional<User> findCurrent(String username);
+
+    @Transactional
+    Optional<User> findFirstByTokenHash(byte[] tokenHash);
+
+    @Modifying
+    @Query("update User u set u.name = coalesce(:name, u.name), u.password = coalesce(:password, u.password), "
+            + "u.version = u.version + 1 where u.username = :username")
+    int updateNameAndPassword(String username, String name, String password);
+
+    /**
+     * Clears the token only while it is still the one given, so a token issued since is kept.
+     */
+    @Modifying
+    @Query("update User u set u.token = null, u.tokenHash = null, u.tokenExpiredAt = null, "
+            + "u.version = u.version + 1 where u.username = :username and u.tokenHash = :tokenHash")
+    int clearToken(String username, byte[] tokenHash);
 }
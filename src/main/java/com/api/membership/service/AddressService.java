@@ -17,6 +17,8 @@ import com.api.membership.model.request.UpdateAddressRequest;
 import com.api.membership.model.response.AddressResponse;
 import com.api.membership.repository.AddressRepository;
 import com.api.membership.repository.ContactRepository;
+import com.api.membership.service.cache.ContactSearchCache;
+import com.api.membership.service.id.IdGenerator;
 
 @Service
 public class AddressService {
@@ -30,15 +32,20 @@ public class AddressService {
     @Autowired
     private ValidationService validationService;
 
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private ContactSearchCache contactSearchCache;
+
     @Transactional
     public AddressResponse create(User user, CreateAddressRequest request) {
         validationService.validate(request);
 
-        Contact contact = contactRepository.findFirstByUserAndId(user, request.getContactId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact is not found"));
+        Contact contact = findContact(user, request.getContactId());
 
         Address address = new Address();
-        address.setId(UUID.randomUUID().toString());
+        address.setId(idGenerator.generate());
         address.setContact(contact);
         address.setStreet(request.getStreet());
         address.setCity(request.getCity());
@@ -52,7 +59,7 @@ public class AddressService {
 
     private AddressResponse toAddressResponse(Address address) {
         return AddressResponse.builder()
-                .id(address.getId())
+                .id(address.getId().toString())
                 .street(address.getStreet())
                 .city(address.getCity())
                 .province(address.getProvince())
@@ -61,54 +68,92 @@ public class AddressService {
                 .build();
     }
 
-    @Transactional(readOnly = true)
-    public AddressResponse get(User user, String contactId, String addressId) {
-        Contact contact = contactRepository.findFirstByUserAndId(user, contactId)
+    private Contact findContact(User user, String id) {
+        return IdGenerator.parse(id)
+                .flatMap(contactId -> contactRepository.findFirstByUserAndId(user, contactId))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact is not found"));
+    }
 
-        Address address = addressRepository.findFirstByContactAndId(contact, addressId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address is not found"));
+    private UUID parseId(String id, String notFound) {
+        return IdGenerator.parse(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, notFound));
+    }
 
-        return toAddressResponse(address);
+    /**
+     * Explains why a statement that checks ownership in its own joins matched nothing. Only runs on
+     * that path, so successful calls stay at one statement.
+     */
+    private ResponseStatusException notFound(User user, UUID contactId) {
+        String reason = contactRepository.existsByUserAndId(user, contactId)
+                ? "Address is not found"
+                : "Contact is not found";
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, reason);
+    }
+
+    /**
+     * Reads the address in one statement that joins it to the contact and checks the contact's owner.
+     */
+    @Transactional(readOnly = true)
+    public AddressResponse get(User user, String contactId, String addressId) {
+        UUID contact = parseId(contactId, "Contact is not found");
+        UUID address = parseId(addressId, "Address is not found");
+
+        return addressRepository.findResponseByUserAndContactIdAndId(user, contact, address)
+                .orElseThrow(() -> notFound(user, contact));
     }
 
+    /**
+     * Updates the address with one statement scoped to the user's contact, without loading the
+     * address or its contact.
+     */
     @Transactional
     public AddressResponse update(User user, UpdateAddressRequest request) {
         validationService.validate(request);
 
-        Contact contact = contactRepository.findFirstByUserAndId(user, request.getContactId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact is not found"));
-
-        Address address = addressRepository.findFirstByContactAndId(contact, request.getAddressId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address is not found"));
+        UUID contact = parseId(request.getContactId(), "Contact is not found");
+        UUID address = parseId(request.getAddressId(), "Address is not found");
 
-        address.setStreet(request.getStreet());
-        address.setCity(request.getCity());
-        address.setProvince(request.getProvince());
-        address.setCountry(request.getCountry());
-        address.setPostalCode(request.getPostalCode());
-        addressRepository.save(address);
+        int updated = addressRepository.updateByUserAndContactIdAndId(user, contact, address, request.getStreet(),
+                request.getCity(), request.getProvince(), request.getCountry(), request.getPostalCode());
+        if (updated == 0) {
+            throw notFound(user, contact);
+        }
+        // Bulk statements bypass the entity listeners
+        contactSearchCache.invalidate(user.getUsername());
 
-        return toAddressResponse(address);
+        return AddressResponse.builder()
+                .id(address.toString())
+                .street(request.getStreet())
+                .city(request.getCity())
+                .province(request.getProvince())
+                .country(request.getCountry())
+                .postalCode(request.getPostalCode())
+                .build();
     }
 
     @Transactional
     public void remove(User user, String contactId, String addressId) {
-        Contact contact = contactRepository.findFirstByUserAndId(user, contactId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact is not found"));
-
-        Address address = addressRepository.findFirstByContactAndId(contact, addressId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Address is not found"));
+        UUID contact = parseId(contactId, "Contact is not found");
+        UUID address = parseId(addressId, "Address is not found");
 
-        addressRepository.delete(address);
+        if (addressRepository.deleteByUserAndContactIdAndId(user, contact, address) == 0) {
+            throw notFound(user, contact);
+        }
+        contactSearchCache.invalidate(user.getUsername());
     }
 
+    /**
+     * Lists the addresses in one statement joined to the owning contact. An empty result is the only
+     * case that needs a second look, to tell an empty list from a missing contact.
+     */
     @Transactional(readOnly = true)
     public List<AddressResponse> list(User user, String contactId) {
-        Contact contact = contactRepository.findFirstByUserAndId(user, contactId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact is not found"));
+        UUID contact = parseId(contactId, "Contact is not found");
 
-        List<Address> addresses = addressRepository.findAllByContact(contact);
-        return addresses.stream().map(this::toAddressResponse).toList();
+        List<AddressResponse> addresses = addressRepository.findAllResponsesByUserAndContactId(user, contact);
+        if (addresses.isEmpty() && !contactRepository.existsByUserAndId(user, contact)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact is not found");
+        }
+        return addresses;
     }
 }
@@ -1,7 +1,5 @@
 package com.api.membership.service;
 
-import java.util.UUID;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
@@ -12,7 +10,8 @@ import com.api.membership.model.User;
 import com.api.membership.model.request.LoginUserRequest;
 import com.api.membership.model.response.TokenResponse;
 import com.api.membership.repository.UserRepository;
-import com.api.membership.service.security.BCrypt;
+import com.api.membership.service.security.LoginThrottle;
+import com.api.membership.service.security.PasswordHasher;
 
 @Service
 public class AuthService {
@@ -23,36 +22,39 @@ public class AuthService {
     @Autowired
     private ValidationService validationService;
 
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     @Transactional
-    public TokenResponse login(LoginUserRequest request){
+    public TokenResponse login(LoginUserRequest request, String clientAddress){
         validationService.validate(request);
 
-        User user=userRepository.findById(request.getUsername())
-                    .orElseThrow(()->new ResponseStatusException(HttpStatus.UNAUTHORIZED,"Username or password wrong"));
+        if (!loginThrottle.tryAcquire(request.getUsername(), clientAddress)) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts, please retry later");
+        }
 
-        if(BCrypt.checkpw(request.getPassword(), user.getPassword())){
-            user.setToken(UUID.randomUUID().toString());
-            user.setTokenExpiredAt(next30days());
-            userRepository.save(user);
+        User user=userRepository.findCurrent(request.getUsername())
+                    .orElseThrow(()->new ResponseStatusException(HttpStatus.UNAUTHORIZED,"Username or password wrong"));
 
-            return TokenResponse.builder()
-                    .token(user.getToken())
-                    .expiredAt(user.getTokenExpiredAt())
-                    .build();
+        if(passwordHasher.matches(request.getPassword(), user.getPassword())){
+            if (passwordHasher.needsRehash(user.getPassword())) {
+                user.setPassword(passwordHasher.rehash(request.getPassword()));
+                userRepository.save(user);
+            }
+            return tokenService.issue(user);
         }else{
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED,"Username or password wrong");
         }
     }
 
-    private Long next30days() {
-        return System.currentTimeMillis() + (1000 * 16 * 24 * 30);
-    }
-
     @Transactional
-    public void logout(User user) {
-        user.setToken(null);
-        user.setTokenExpiredAt(null);
-
-        userRepository.save(user);
+    public void logout(User user, String token) {
+        tokenService.revoke(user, token);
     }
 }
@@ -1,46 +1,104 @@
 package com.api.membership.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.ToIntFunction;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.api.membership.model.Contact;
 import com.api.membership.model.User;
+import com.api.membership.model.request.BulkContactRequest;
+import com.api.membership.model.request.BulkUpdateContactRequest;
 import com.api.membership.model.request.CreateContactRequest;
 import com.api.membership.model.request.SearchContactRequest;
 import com.api.membership.model.request.UpdateContactRequest;
+import com.api.membership.model.response.BulkContactResponse;
 import com.api.membership.model.response.ContactResponse;
+import com.api.membership.repository.AddressRepository;
+import com.api.membership.repository.ContactAddress;
 import com.api.membership.repository.ContactRepository;
+import com.api.membership.service.cache.ContactSearchCache;
+import com.api.membership.service.cache.SearchCountCache;
+import com.api.membership.service.id.IdGenerator;
+import com.api.membership.service.search.ContactCursor;
+import com.api.membership.service.search.ContactNgramIndex;
+import com.api.membership.service.search.PhoneNumbers;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 
 @Service
 public class ContactService {
 
+    private static final Sort ID_ORDER = Sort.by("id");
+
+    @Value("${membership.contact-bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
     @Autowired
     private ContactRepository contactRepository;
 
+    @Autowired
+    private AddressRepository addressRepository;
+
     @Autowired
     private ValidationService validationService;
 
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private ContactNgramIndex contactNgramIndex;
+
+    @Autowired
+    private SearchCountCache searchCountCache;
+
+    @Autowired
+    private ContactSearchCache contactSearchCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private TransactionTemplate writeTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
     @Transactional
     public ContactResponse create(User user, CreateContactRequest request) {
         validationService.validate(request);
 
         Contact contact = new Contact();
-        contact.setId(UUID.randomUUID().toString());
+        contact.setId(idGenerator.generate());
         contact.setFirstName(request.getFirstName());
         contact.setLastName(request.getLastName());
         contact.setEmail(request.getEmail());
@@ -54,28 +112,56 @@ public class ContactService {
 
     private ContactResponse toContactResponse(Contact contact) {
         return ContactResponse.builder()
-                .id(contact.getId())
+                .id(contact.getId().toString())
                 .firstName(contact.getFirstName())
                 .lastName(contact.getLastName())
                 .email(contact.getEmail())
                 .phone(contact.getPhone())
+                .createdAt(contact.getCreatedAt())
                 .build();
     }
 
+    private Contact findContact(User user, String id) {
+        return IdGenerator.parse(id)
+                .flatMap(contactId -> contactRepository.findFirstByUserAndId(user, contactId))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+    }
+
     @Transactional(readOnly = true)
-    public ContactResponse get(User user, String id) {
-        Contact contact = contactRepository.findFirstByUserAndId(user, id)
+    public ContactResponse get(User user, String id, boolean addresses) {
+        ContactResponse contact = IdGenerator.parse(id)
+                .flatMap(contactId -> contactRepository.findResponseByUserAndId(user, contactId))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+        if (addresses) {
+            embedAddresses(user, List.of(contact));
+        }
+        return contact;
+    }
 
-        return toContactResponse(contact);
+    /**
+     * Fills in the addresses of the given contacts with one query for all of them, however many
+     * there are.
+     */
+    private void embedAddresses(User user, List<ContactResponse> contacts) {
+        if (contacts.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, ContactResponse> byId = new HashMap<>(contacts.size() * 2);
+        for (ContactResponse contact : contacts) {
+            contact.setAddresses(new ArrayList<>());
+            byId.put(UUID.fromString(contact.getId()), contact);
+        }
+        for (ContactAddress address : contactRepository.findAddressesByUserAndIdIn(user, byId.keySet())) {
+            byId.get(address.contactId()).getAddresses().add(address.toResponse());
+        }
     }
 
     @Transactional
     public ContactResponse update(User user, UpdateContactRequest request) {
         validationService.validate(request);
 
-        Contact contact = contactRepository.findFirstByUserAndId(user, request.getId())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+        Contact contact = findContact(user, request.getId());
 
         contact.setFirstName(request.getFirstName());
         contact.setLastName(request.getLastName());
@@ -86,40 +172,323 @@ public class ContactService {
         return toContactResponse(contact);
     }
 
+    /**
+     * Deletes the contact and its addresses with one statement each, without loading either. Trigrams
+     * go with the contact through their foreign key.
+     */
     @Transactional
     public void delete(User user, String contactId) {
-        Contact contact = contactRepository.findFirstByUserAndId(user, contactId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found"));
+        List<UUID> ids = List.of(IdGenerator.parse(contactId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found")));
 
-        contactRepository.delete(contact);
+        addressRepository.deleteAllByUserAndContactIdIn(user, ids);
+        if (contactRepository.deleteAllByUserAndIdIn(user, ids) == 0) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Contact not found");
+        }
+        contactSearchCache.invalidate(user.getUsername());
     }
 
-    @Transactional(readOnly = true)
-    public Page<ContactResponse> search(User user, SearchContactRequest request) {
-        Specification<Contact> specification = (root, query, builder) -> {
+    /**
+     * Deletes the selected contacts and their addresses. Contacts that do not exist or belong to
+     * another user are skipped, so the returned count can be lower than the number of ids.
+     */
+    public BulkContactResponse bulkDelete(User user, BulkContactRequest request) {
+        validationService.validate(request);
+
+        int affected = forEachChunk(user, request, ids -> {
+            addressRepository.deleteAllByUserAndContactIdIn(user, ids);
+            return contactRepository.deleteAllByUserAndIdIn(user, ids);
+        });
+        return BulkContactResponse.builder().affected(affected).build();
+    }
+
+    /**
+     * Sets the given fields on the selected contacts with one update statement per chunk, then
+     * rebuilds the trigrams of the chunk when a name or the email changed.
+     */
+    public BulkContactResponse bulkUpdate(User user, BulkUpdateContactRequest request) {
+        validationService.validate(request);
+        if (Objects.isNull(request.getFirstName()) && Objects.isNull(request.getLastName())
+                && Objects.isNull(request.getEmail()) && Objects.isNull(request.getPhone())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Nothing to update");
+        }
+
+        String phoneDigits = PhoneNumbers.normalize(request.getPhone());
+        boolean reindex = Objects.nonNull(request.getFirstName()) || Objects.nonNull(request.getLastName())
+                || Objects.nonNull(request.getEmail());
+        int affected = forEachChunk(user, request.getWhere(), ids -> {
+            int updated = contactRepository.updateAllByUserAndIdIn(user, ids, request.getFirstName(),
+                    request.getLastName(), request.getEmail(), request.getPhone(), phoneDigits,
+                    PhoneNumbers.reverse(phoneDigits));
+            if (reindex) {
+                contactNgramIndex.removeAll(ids);
+                contactNgramIndex.indexAll(contactRepository.findAllById(ids));
+            }
+            return updated;
+        });
+        return BulkContactResponse.builder().affected(affected).build();
+    }
+
+    /**
+     * Walks the selected contacts in id order, {@code membership.contact-bulk.chunk-size} at a time,
+     * and runs the operation on each chunk of ids in a transaction of its own, so locks are only held
+     * for one chunk. The ids are selected in the same transaction, so both go to the primary. Returns
+     * the sum of the counts the operation reported.
+     */
+    private int forEachChunk(User user, BulkContactRequest request, ToIntFunction<List<UUID>> operation) {
+        List<UUID> selectedIds = null;
+        if (Objects.nonNull(request.getIds())) {
+            selectedIds = new ArrayList<>(request.getIds().size());
+            for (String id : request.getIds()) {
+                selectedIds.add(IdGenerator.parse(id)
+                        .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid contact id")));
+            }
+        } else if (Objects.isNull(request.getName()) && Objects.isNull(request.getEmail())
+                && Objects.isNull(request.getPhone())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Select contacts by ids or a filter");
+        }
+        if (Objects.nonNull(selectedIds) && selectedIds.isEmpty()) {
+            return 0;
+        }
+
+        int affected = 0;
+        UUID after = null;
+        while (true) {
+            Specification<Contact> specification = matching(user, request.getName(), request.getEmail(),
+                    request.getPhone(), selectedIds, Objects.isNull(after) ? null : ContactCursor.of(after));
+            List<UUID> ids = new ArrayList<>(bulkChunkSize);
+            affected += writeTransaction.execute(status -> {
+                ids.addAll(contactRepository.findIds(specification, bulkChunkSize));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                int count = operation.applyAsInt(ids);
+                // Bulk statements bypass the entity listeners
+                contactSearchCache.invalidate(user.getUsername());
+                return count;
+            });
+            if (ids.size() < bulkChunkSize) {
+                break;
+            }
+            after = ids.get(ids.size() - 1);
+        }
+        return affected;
+    }
+
+    /**
+     * Searches the user's contacts in the requested order, or in id order when none is given, reading
+     * rows straight into responses. With an {@code after} cursor the page starts past the cursor and
+     * no count is run, so every page costs the same. Without one the requested page is returned with
+     * an exact total, a cached estimate or no total at all, as {@code total} asks. Addresses are
+     * embedded on request with one more query for the whole page. Results are cached per user until
+     * their contacts or addresses change.
+     */
+    public Slice<ContactResponse> search(User user, SearchContactRequest request) {
+        // Cached results are served without opening a transaction
+        return contactSearchCache.get(user.getUsername(), request,
+                () -> readOnlyTransaction.execute(status -> searchContacts(user, request)));
+    }
+
+    private Slice<ContactResponse> searchContacts(User user, SearchContactRequest request) {
+        Slice<ContactResponse> contacts = findContacts(user, request);
+        if (request.isAddresses()) {
+            embedAddresses(user, contacts.getContent());
+        }
+        return contacts;
+    }
+
+    private Slice<ContactResponse> findContacts(User user, SearchContactRequest request) {
+        ContactCursor after = null;
+        if (Objects.nonNull(request.getAfter())) {
+            after = ContactCursor.decode(request.getAfter())
+                    .filter(cursor -> issuedFor(cursor, request))
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor"));
+        }
+        SearchContactRequest.Total total = Objects.nonNull(request.getTotal())
+                ? request.getTotal()
+                : SearchContactRequest.Total.EXACT;
+
+        Specification<Contact> specification = matching(user, request.getName(), request.getEmail(),
+                request.getPhone(), null, after);
+        Sort order = order(request);
+
+        if (Objects.nonNull(after)) {
+            return contactRepository.findSlice(specification, PageRequest.of(0, request.getSize(), order));
+        }
+
+        Pageable pageable = PageRequest.of(request.getPage(), request.getSize(), order);
+        if (total == SearchContactRequest.Total.NONE) {
+            return contactRepository.findSlice(specification, pageable);
+        }
+        if (total == SearchContactRequest.Total.ESTIMATE) {
+            Slice<ContactResponse> contacts = contactRepository.findSlice(specification, pageable);
+            SearchCountCache.Key key = new SearchCountCache.Key(user.getUsername(), request.getName(),
+                    request.getEmail(), request.getPhone());
+            long estimate = searchCountCache.get(key, () -> contactRepository.count(specification));
+
+            // The page itself bounds the total; on the last page it is exact
+            long seen = pageable.getOffset() + contacts.getNumberOfElements();
+            if (contacts.hasNext()) {
+                estimate = Math.max(estimate, seen + 1);
+            } else if (contacts.hasContent() || pageable.getOffset() == 0) {
+                estimate = seen;
+                searchCountCache.put(key, estimate);
+            }
+
+            return new PageImpl<>(contacts.getContent(), pageable, estimate);
+        }
+
+        return contactRepository.findPage(specification, pageable);
+    }
+
+    /**
+     * Orders by the sort field and then by id in the same direction, matching one of the
+     * {@code (username, column, id)} indexes so MySQL reads rows in index order without a filesort.
+     */
+    private Sort order(SearchContactRequest request) {
+        if (Objects.isNull(request.getSort())) {
+            return ID_ORDER;
+        }
+        return Sort.by(direction(request), request.getSort().getProperty(), "id");
+    }
+
+    private Sort.Direction direction(SearchContactRequest request) {
+        return Objects.requireNonNullElse(request.getDirection(), Sort.Direction.ASC);
+    }
+
+    private boolean issuedFor(ContactCursor cursor, SearchContactRequest request) {
+        if (cursor.sort() != request.getSort()) {
+            return false;
+        }
+        if (Objects.isNull(cursor.sort())) {
+            return true;
+        }
+        if (cursor.direction() != direction(request)) {
+            return false;
+        }
+        if (cursor.sort() == SearchContactRequest.SortField.CREATED_AT) {
+            try {
+                Long.parseLong(cursor.value());
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches the user's contacts against the search filters, optionally limited to the given ids and
+     * to contacts past the cursor.
+     */
+    private Specification<Contact> matching(User user, String name, String email, String phone,
+            Collection<UUID> ids, ContactCursor after) {
+        return (root, query, builder) -> {
             List<Predicate> predicates = new ArrayList<>();
             predicates.add(builder.equal(root.get("user"), user));
-            if (Objects.nonNull(request.getName())) {
+            if (Objects.nonNull(name)) {
+                addCandidates(predicates, root, query, builder, user, ContactNgramIndex.NAME, name);
                 predicates.add(builder.or(
-                        builder.like(root.get("firstName"), "%" + request.getName() + "%"),
-                        builder.like(root.get("lastName"), "%" + request.getName() + "%")));
+                        builder.like(root.get("firstName"), "%" + name + "%"),
+                        builder.like(root.get("lastName"), "%" + name + "%")));
+            }
+            if (Objects.nonNull(email)) {
+                addCandidates(predicates, root, query, builder, user, ContactNgramIndex.EMAIL, email);
+                predicates.add(builder.like(root.get("email"), "%" + email + "%"));
             }
-            if (Objects.nonNull(request.getEmail())) {
-                predicates.add(builder.like(root.get("email"), "%" + request.getEmail() + "%"));
+            if (Objects.nonNull(phone)) {
+                predicates.add(phoneMatches(root, builder, phone));
             }
-            if (Objects.nonNull(request.getPhone())) {
-                predicates.add(builder.like(root.get("phone"), "%" + request.getPhone() + "%"));
+            if (Objects.nonNull(ids)) {
+                predicates.add(root.get("id").in(ids));
+            }
+            if (Objects.nonNull(after)) {
+                predicates.add(pastCursor(root, builder, after));
             }
 
             return query.where(predicates.toArray(new Predicate[] {})).getRestriction();
         };
+    }
+
+    /**
+     * Matches contacts that follow the cursor in the order it was issued for, as
+     * {@code (column, id) > (value, id)} spelled out for JPA. MySQL sorts nulls first, so ascending
+     * they precede every value and descending they follow them.
+     */
+    private Predicate pastCursor(Root<Contact> root, CriteriaBuilder builder, ContactCursor cursor) {
+        Path<UUID> id = root.get("id");
+        if (Objects.isNull(cursor.sort())) {
+            return builder.greaterThan(id, cursor.id());
+        }
+
+        boolean descending = cursor.direction() == Sort.Direction.DESC;
+        Predicate pastId = descending ? builder.lessThan(id, cursor.id()) : builder.greaterThan(id, cursor.id());
+        if (cursor.sort() == SearchContactRequest.SortField.CREATED_AT) {
+            Path<Long> createdAt = root.get("createdAt");
+            long value = Long.parseLong(cursor.value());
+            return builder.or(
+                    descending ? builder.lessThan(createdAt, value) : builder.greaterThan(createdAt, value),
+                    builder.and(builder.equal(createdAt, value), pastId));
+        }
+
+        Path<String> column = root.get(cursor.sort().getProperty());
+        if (Objects.isNull(cursor.value())) {
+            Predicate pastNull = builder.and(builder.isNull(column), pastId);
+            return descending ? pastNull : builder.or(pastNull, builder.isNotNull(column));
+        }
+        Predicate past = builder.or(
+                descending ? builder.lessThan(column, cursor.value()) : builder.greaterThan(column, cursor.value()),
+                builder.and(builder.equal(column, cursor.value()), pastId));
+        return descending ? builder.or(past, builder.isNull(column)) : past;
+    }
+
+    /**
+     * Returns the cursor of the page following the given search result, or null on the last page.
+     */
+    public String nextCursor(SearchContactRequest request, Slice<ContactResponse> contacts) {
+        if (!contacts.hasNext() || contacts.isEmpty()) {
+            return null;
+        }
+
+        ContactResponse last = contacts.getContent().get(contacts.getNumberOfElements() - 1);
+        UUID id = UUID.fromString(last.getId());
+        if (Objects.isNull(request.getSort())) {
+            return ContactCursor.of(id).encode();
+        }
+
+        String value = switch (request.getSort()) {
+            case FIRST_NAME -> last.getFirstName();
+            case LAST_NAME -> last.getLastName();
+            case EMAIL -> last.getEmail();
+            case CREATED_AT -> String.valueOf(last.getCreatedAt());
+        };
+        return new ContactCursor(request.getSort(), direction(request), value, id).encode();
+    }
+
+    /**
+     * Matches phone numbers starting with the normalized digits of the term, or ending with its digits
+     * as written, each a range read on one of the {@code (username, phone_digits)} indexes. Only the
+     * start of a number has a country code or trunk zero to drop; a leading zero in a suffix such as
+     * {@code 0345} is part of it. Terms without digits fall back to a substring match on the raw value.
+     */
+    private Predicate phoneMatches(Root<Contact> root, CriteriaBuilder builder, String phone) {
+        String suffix = PhoneNumbers.digits(phone);
+        if (suffix.isEmpty()) {
+            return builder.like(root.get("phone"), "%" + phone + "%");
+        }
+
+        Predicate endsWith = builder.like(root.get("phoneDigitsReversed"), PhoneNumbers.reverse(suffix) + "%");
+        String prefix = PhoneNumbers.normalize(phone);
+        if (prefix.isEmpty()) {
+            return endsWith;
+        }
+        return builder.or(builder.like(root.get("phoneDigits"), prefix + "%"), endsWith);
+    }
 
-        Pageable pageable = PageRequest.of(request.getPage(), request.getSize());
-        Page<Contact> contacts = contactRepository.findAll(specification, pageable);
-        List<ContactResponse> contactResponses = contacts.getContent().stream()
-                .map(this::toContactResponse)
-                .toList();
-                
-        return new PageImpl<>(contactResponses, pageable, contacts.getTotalElements());
+    private void addCandidates(List<Predicate> predicates, Root<Contact> root, CriteriaQuery<?> query,
+            CriteriaBuilder builder, User user, String field, String term) {
+        Predicate candidates = contactNgramIndex.candidates(root, query, builder, user, field, term);
+        if (candidates != null) {
+            predicates.add(candidates);
+        }
     }
 }
@@ -0,0 +1,127 @@
+package com.api.membership.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.api.membership.service.cache.ContactSearchCache;
+import com.api.membership.service.cache.SecondLevelCache;
+import com.api.membership.service.search.PhoneNumbers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Fills {@code phone_digits} and {@code phone_digits_reversed} for contacts written before the
+ * columns existed. New and updated contacts get them from the entity itself.
+ * <p>
+ * Rows are walked in primary key order in batches of {@code membership.phone-backfill.batch-size},
+ * and each batch is written as one short JDBC batch. Like {@link TokenSweeper}, the job sleeps at
+ * least as long as the previous batch took before reading the next one. Once a run finds nothing
+ * left it stops checking for the lifetime of the process.
+ */
+@Component
+public class PhoneDigitsBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(PhoneDigitsBackfill.class);
+
+    private static final String SELECT_PENDING = "select id, phone from contacts "
+            + "where id > ? and phone is not null and phone_digits is null order by id limit ?";
+
+    private static final String UPDATE_DIGITS = "update contacts set phone_digits = ?, phone_digits_reversed = ? "
+            + "where id = ? and phone = ? and phone_digits is null";
+
+    @Value("${membership.phone-backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${membership.phone-backfill.batch-size:500}")
+    private int batchSize;
+
+    @Value("${membership.phone-backfill.pause-ms:50}")
+    private long pauseMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContactSearchCache contactSearchCache;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile boolean done;
+
+    private Counter backfilled;
+
+    private Timer batchTimer;
+
+    @PostConstruct
+    void init() {
+        backfilled = Counter.builder("membership.phone-backfill.rows")
+                .description("Contacts whose normalized phone digits were filled in")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("membership.phone-backfill.batch")
+                .description("Time taken to read and update one batch of contacts")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${membership.phone-backfill.interval-ms:60000}",
+            fixedDelayString = "${membership.phone-backfill.interval-ms:60000}")
+    public void backfill() throws InterruptedException {
+        if (!enabled || done) {
+            return;
+        }
+
+        byte[] after = new byte[16];
+        long total = 0;
+        int read;
+        do {
+            long startedAt = System.nanoTime();
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_PENDING, after, batchSize);
+            read = rows.size();
+            if (read == 0) {
+                break;
+            }
+
+            List<Object[]> args = new ArrayList<>(read);
+            for (Map<String, Object> row : rows) {
+                String phone = (String) row.get("phone");
+                String digits = PhoneNumbers.normalize(phone);
+                args.add(new Object[] { digits, PhoneNumbers.reverse(digits), row.get("id"), phone });
+            }
+            jdbcTemplate.batchUpdate(UPDATE_DIGITS, args);
+            after = (byte[]) rows.get(read - 1).get("id");
+
+            long elapsed = System.nanoTime() - startedAt;
+            batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            backfilled.increment(read);
+            total += read;
+            // Backfilled contacts become findable by phone
+            contactSearchCache.clear();
+            secondLevelCache.evictAllContacts();
+
+            if (read == batchSize) {
+                Thread.sleep(Math.max(pauseMs, TimeUnit.NANOSECONDS.toMillis(elapsed)));
+            }
+        } while (read == batchSize);
+
+        if (total > 0) {
+            log.info("Filled in normalized phone digits for {} contacts", total);
+        }
+        done = true;
+    }
+}
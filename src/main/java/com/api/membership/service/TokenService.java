@@ -0,0 +1,157 @@
+package com.api.membership.service;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.api.membership.model.User;
+import com.api.membership.model.response.TokenResponse;
+import com.api.membership.repository.UserRepository;
+import com.api.membership.service.cache.TokenCache;
+import com.api.membership.service.security.TokenHash;
+import com.api.membership.service.security.TokenRevocationSet;
+import com.api.membership.service.security.TokenSigner;
+
+/**
+ * Issues, resolves and revokes API tokens.
+ * <p>
+ * In {@code opaque} mode a token is a random UUID stored in {@code users.token}. In {@code signed}
+ * mode the token carries the username and expiry under an HMAC signature, so it is verified without
+ * touching the database and revoked through {@link TokenRevocationSet}. Opaque token writes can be
+ * deferred through {@link TokenWriteBehind}. The signer and the revocation set only exist in signed
+ * mode.
+ */
+@Service
+public class TokenService {
+
+    public enum Mode {
+        OPAQUE, SIGNED
+    }
+
+    @Value("${membership.token.mode:opaque}")
+    private Mode mode;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired(required = false)
+    private TokenSigner tokenSigner;
+
+    @Autowired(required = false)
+    private TokenRevocationSet tokenRevocationSet;
+
+    @Autowired
+    private TokenWriteBehind tokenWriteBehind;
+
+    public TokenResponse issue(User user) {
+        if (mode == Mode.SIGNED) {
+            long expiredAt = next30days();
+            return TokenResponse.builder()
+                    .token(tokenSigner.sign(user.getUsername(), expiredAt))
+                    .expiredAt(expiredAt)
+                    .build();
+        }
+
+        tokenCache.invalidate(user.getToken());
+        if (tokenWriteBehind.isEnabled()) {
+            String token = UUID.randomUUID().toString();
+            long expiredAt = next30days();
+            tokenWriteBehind.issue(user, token, expiredAt);
+            return TokenResponse.builder()
+                    .token(token)
+                    .expiredAt(expiredAt)
+                    .build();
+        }
+
+        user.setToken(UUID.randomUUID().toString());
+        user.setTokenExpiredAt(next30days());
+        userRepository.save(user);
+
+        return TokenResponse.builder()
+                .token(user.getToken())
+                .expiredAt(user.getTokenExpiredAt())
+                .build();
+    }
+
+    private Long next30days() {
+        return System.currentTimeMillis() + (1000 * 16 * 24 * 30);
+    }
+
+    public User resolve(String token) {
+        if (mode == Mode.SIGNED) {
+            return resolveSigned(token);
+        }
+
+        if (tokenWriteBehind.isEnabled() && tokenWriteBehind.isReplaced(token)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
+
+        User cached = tokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = tokenCache.stamp(token);
+
+        if (tokenWriteBehind.isEnabled()) {
+            User issued = tokenWriteBehind.findIssued(token);
+            if (issued != null) {
+                return issued;
+            }
+        }
+
+        User user = userRepository.findFirstByTokenHash(TokenHash.of(token))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+
+        if (user.getTokenExpiredAt() < System.currentTimeMillis()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
+
+        tokenCache.put(token, user, user.getTokenExpiredAt(), stamp);
+        return user;
+    }
+
+    private User resolveSigned(String token) {
+        TokenSigner.SignedToken signed = tokenSigner.verify(token);
+        if (signed == null || signed.expiredAt() < System.currentTimeMillis()
+                || tokenRevocationSet.isRevoked(signed.signature())) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
+        }
+
+        User cached = tokenCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = tokenCache.stamp(token);
+
+        User user = userRepository.findById(signed.username())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
+
+        return tokenCache.put(token, user, signed.expiredAt(), stamp);
+    }
+
+    public void revoke(User user, String token) {
+        tokenCache.invalidate(token);
+
+        if (mode == Mode.SIGNED) {
+            TokenSigner.SignedToken signed = tokenSigner.verify(token);
+            if (signed != null) {
+                tokenRevocationSet.revoke(signed.signature(), signed.expiredAt());
+            }
+            return;
+        }
+
+        if (tokenWriteBehind.isEnabled()) {
+            tokenWriteBehind.revoke(user, token);
+            return;
+        }
+
+        userRepository.clearToken(user.getUsername(), TokenHash.of(token));
+    }
+}
@@ -0,0 +1,103 @@
+package com.api.membership.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.api.membership.service.cache.SecondLevelCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Clears expired tokens from {@code users} so they stop occupying the unique token index.
+ * <p>
+ * Rows are found through {@code idx_users_token_expired_at} and cleared in batches of
+ * {@code membership.token.sweeper.batch-size}, each its own short statement. Between batches the
+ * sweeper sleeps at least as long as the previous batch took, so it never holds row locks for more
+ * than half the time while logins are updating the same table.
+ */
+@Component
+public class TokenSweeper {
+
+    private static final String CLEAR_EXPIRED = "update users set token = null, token_hash = null, token_expired_at = null, "
+            + "version = version + 1 where token_expired_at < ? limit ?";
+
+    private static final String COUNT_EXPIRED = "select count(*) from users where token_expired_at < ?";
+
+    @Value("${membership.token.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${membership.token.sweeper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${membership.token.sweeper.pause-ms:50}")
+    private long pauseMs;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    private Counter swept;
+
+    private Timer batchTimer;
+
+    @PostConstruct
+    void init() {
+        swept = Counter.builder("membership.token.sweeper.swept")
+                .description("Expired tokens cleared")
+                .register(meterRegistry);
+        batchTimer = Timer.builder("membership.token.sweeper.batch")
+                .description("Time taken to clear one batch of expired tokens")
+                .register(meterRegistry);
+        Gauge.builder("membership.token.sweeper.backlog", backlog, AtomicLong::get)
+                .description("Expired tokens waiting to be cleared when the last sweep started")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${membership.token.sweeper.interval-ms:300000}",
+            fixedDelayString = "${membership.token.sweeper.interval-ms:300000}")
+    public void sweep() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Long expired = jdbcTemplate.queryForObject(COUNT_EXPIRED, Long.class, now);
+        backlog.set(expired == null ? 0 : expired);
+
+        int cleared;
+        do {
+            long startedAt = System.nanoTime();
+            cleared = jdbcTemplate.update(CLEAR_EXPIRED, now, batchSize);
+            long elapsed = System.nanoTime() - startedAt;
+            if (cleared > 0) {
+                // The cleared rows are not known, so every cached user goes
+                secondLevelCache.evictAllUsers();
+            }
+
+            batchTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            swept.increment(cleared);
+            backlog.set(Math.max(0, backlog.get() - cleared));
+
+            if (cleared == batchSize) {
+                Thread.sleep(Math.max(pauseMs, TimeUnit.NANOSECONDS.toMillis(elapsed)));
+            }
+        } while (cleared == batchSize);
+    }
+}
@@ -0,0 +1,289 @@
+package com.api.membership.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.api.membership.model.User;
+import com.api.membership.service.cache.SecondLevelCache;
+import com.api.membership.service.security.TokenHash;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind store for opaque token columns on {@code users}.
+ * <p>
+ * When {@code membership.token.write-behind.enabled} is set, logins no longer update the user row
+ * themselves. The latest token of each user is queued here and flushed every
+ * {@code flush-interval-ms} as one JDBC batch in a single transaction. Until then the token is
+ * served from memory, and tokens it replaced are refused, so callers see the new state at once.
+ * <p>
+ * A crash loses logins that were not flushed yet, which only forces those users to log in again.
+ * Revocations are written synchronously unless {@code sync-revocations} is turned off, because
+ * losing one would make a logged out token valid again.
+ */
+@Component
+public class TokenWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenWriteBehind.class);
+
+    private static final String UPDATE_TOKEN = "update users set token = ?, token_hash = ?, token_expired_at = ?, "
+            + "version = version + 1 where username = ?";
+
+    @Value("${membership.token.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${membership.token.write-behind.flush-interval-ms:5}")
+    private long flushIntervalMs;
+
+    @Value("${membership.token.write-behind.sync-revocations:true}")
+    private boolean syncRevocations;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+
+    private final Map<String, User> issued = new ConcurrentHashMap<>();
+
+    private final Set<String> replaced = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private ScheduledExecutorService flusher;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Timer flushTimer;
+
+    private Timer lagTimer;
+
+    private DistributionSummary batchSize;
+
+    private record PendingWrite(String username, @Nullable String token, @Nullable Long tokenExpiredAt,
+            @Nullable String previousToken, long enqueuedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        flushTimer = Timer.builder("membership.token.write-behind.flush")
+                .description("Time taken to write one batch of token updates")
+                .register(meterRegistry);
+        lagTimer = Timer.builder("membership.token.write-behind.lag")
+                .description("Time a token update waited in memory before it was durable")
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("membership.token.write-behind.batch")
+                .baseUnit("rows")
+                .register(meterRegistry);
+        Gauge.builder("membership.token.write-behind.pending", pending, Map::size)
+                .register(meterRegistry);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (!enabled) {
+            return;
+        }
+
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a newly issued token. The given user is only read, never modified.
+     */
+    public void issue(User user, String token, long tokenExpiredAt) {
+        User snapshot = new User();
+        snapshot.setUsername(user.getUsername());
+        snapshot.setPassword(user.getPassword());
+        snapshot.setName(user.getName());
+        snapshot.setToken(token);
+        snapshot.setTokenExpiredAt(tokenExpiredAt);
+
+        issued.put(token, snapshot);
+        enqueue(new PendingWrite(user.getUsername(), token, tokenExpiredAt, user.getToken(), System.nanoTime()));
+    }
+
+    public void revoke(User user, String token) {
+        issued.remove(token);
+        if (!syncRevocations) {
+            enqueue(new PendingWrite(user.getUsername(), null, null, token, System.nanoTime()));
+            return;
+        }
+
+        // Serialized with flushes, so a batch in flight cannot write a token back after this
+        flushLock.lock();
+        try {
+            PendingWrite dropped = pending.remove(user.getUsername());
+            if (dropped != null && dropped.token() != null) {
+                issued.remove(dropped.token());
+            }
+            transactionTemplate.executeWithoutResult(
+                    status -> jdbcTemplate.update(UPDATE_TOKEN, null, null, null, user.getUsername()));
+            secondLevelCache.evictUsers(List.of(user.getUsername()));
+            if (dropped != null && dropped.previousToken() != null) {
+                replaced.remove(dropped.previousToken());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void enqueue(PendingWrite write) {
+        if (write.previousToken() != null) {
+            replaced.add(write.previousToken());
+        }
+        PendingWrite superseded = pending.put(write.username(), write);
+        if (superseded != null && superseded.token() != null) {
+            // Never reached the database, so forgetting it is enough to reject it
+            issued.remove(superseded.token());
+        }
+    }
+
+    /**
+     * Returns a copy of the user owning a token that was issued but not flushed yet.
+     */
+    @Nullable
+    public User findIssued(String token) {
+        User snapshot = issued.get(token);
+        if (snapshot == null) {
+            return null;
+        }
+
+        User user = new User();
+        user.setUsername(snapshot.getUsername());
+        user.setPassword(snapshot.getPassword());
+        user.setName(snapshot.getName());
+        user.setToken(snapshot.getToken());
+        user.setTokenExpiredAt(snapshot.getTokenExpiredAt());
+        return user;
+    }
+
+    /**
+     * Tells whether the token was replaced or revoked by a write that is not durable yet, so the
+     * database still holds it.
+     */
+    public boolean isReplaced(String token) {
+        return replaced.contains(token);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush token updates, they will be retried", e);
+        }
+    }
+
+    /**
+     * Writes every pending token update now. When the batch fails the updates stay pending for the
+     * next flush and the error is rethrown.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            flushBatch();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushBatch() {
+        List<PendingWrite> batch = new ArrayList<>(pending.size());
+        for (PendingWrite write : pending.values()) {
+            if (pending.remove(write.username(), write)) {
+                batch.add(write);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (PendingWrite write : batch) {
+            byte[] tokenHash = write.token() == null ? null : TokenHash.of(write.token());
+            args.add(new Object[] { write.token(), tokenHash, write.tokenExpiredAt(), write.username() });
+        }
+
+        long startedAt = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_TOKEN, args));
+        } catch (RuntimeException e) {
+            for (PendingWrite write : batch) {
+                pending.putIfAbsent(write.username(), write);
+            }
+            throw e;
+        }
+        secondLevelCache.evictUsers(batch.stream().map(PendingWrite::username).toList());
+
+        long flushedAt = System.nanoTime();
+        flushTimer.record(flushedAt - startedAt, TimeUnit.NANOSECONDS);
+        batchSize.record(batch.size());
+        for (PendingWrite write : batch) {
+            lagTimer.record(flushedAt - write.enqueuedAt(), TimeUnit.NANOSECONDS);
+            if (write.token() != null) {
+                issued.remove(write.token());
+            }
+            if (write.previousToken() != null) {
+                replaced.remove(write.previousToken());
+            }
+        }
+    }
+}
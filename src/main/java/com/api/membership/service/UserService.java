@@ -13,7 +13,8 @@ import com.api.membership.model.request.RegisterUserRequest;
 import com.api.membership.model.request.UpdateUserRequest;
 import com.api.membership.model.response.UserResponse;
 import com.api.membership.repository.UserRepository;
-import com.api.membership.service.security.BCrypt;
+import com.api.membership.service.cache.TokenCache;
+import com.api.membership.service.security.PasswordHasher;
 
 @Service
 public class UserService {
@@ -24,6 +25,12 @@ public class UserService {
     @Autowired
     private ValidationService validationService;
 
+    @Autowired
+    private TokenCache tokenCache;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
     @Transactional
     public void register(RegisterUserRequest request) {
         validationService.validate(request);
@@ -34,7 +41,7 @@ public class UserService {
 
         User user = new User();
         user.setUsername(request.getUsername());
-        user.setPassword(BCrypt.hashpw(request.getPassword(), BCrypt.gensalt()));
+        user.setPassword(passwordHasher.hash(request.getPassword()));
         user.setName(request.getName());
 
         userRepository.save(user);
@@ -51,18 +58,12 @@ public class UserService {
     public UserResponse update(User user, UpdateUserRequest request) {
         validationService.validate(request);
 
-        if (Objects.nonNull(request.getName())) {
-            user.setName(request.getName());
-        }
-
-        if (Objects.nonNull(request.getPassword())) {
-            user.setPassword(BCrypt.hashpw(request.getPassword(), BCrypt.gensalt()));
-        }
-
-        userRepository.save(user);
+        String password = Objects.nonNull(request.getPassword()) ? passwordHasher.hash(request.getPassword()) : null;
+        userRepository.updateNameAndPassword(user.getUsername(), request.getName(), password);
+        tokenCache.invalidateUser(user.getUsername());
 
         return UserResponse.builder()
-                .name(user.getName())
+                .name(Objects.nonNull(request.getName()) ? request.getName() : user.getName())
                 .username(user.getUsername())
                 .build();
     }
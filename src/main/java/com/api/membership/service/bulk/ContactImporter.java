@@ -0,0 +1,246 @@
+package com.api.membership.service.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.api.membership.model.Contact;
+import com.api.membership.model.User;
+import com.api.membership.model.request.CreateContactRequest;
+import com.api.membership.model.response.ImportContactError;
+import com.api.membership.model.response.ImportContactResponse;
+import com.api.membership.service.cache.ContactSearchCache;
+import com.api.membership.service.cache.SecondLevelCache;
+import com.api.membership.service.id.IdGenerator;
+import com.api.membership.service.search.ContactNgramIndex;
+import com.api.membership.service.search.PhoneNumbers;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+/**
+ * Imports many contacts of one user from a JSON array or NDJSON body.
+ * <p>
+ * The body is read one contact at a time and handled in chunks of
+ * {@code membership.contact-import.chunk-size}. A chunk is validated in parallel, then its valid
+ * rows are written with one JDBC batch for the contacts and one for their trigrams, in a
+ * transaction of its own. Invalid or unreadable rows are reported by their position in the body
+ * and skipped, so one bad row never costs the others. If a chunk fails in the database, its rows are
+ * retried one by one to find the culprit.
+ * <p>
+ * Contacts bypass JPA here, so the search cache and the cached contact lookups are invalidated
+ * explicitly after each chunk.
+ */
+@Component
+public class ContactImporter {
+
+    private static final String INSERT = "insert into contacts (id, username, first_name, last_name, email, phone, "
+            + "phone_digits, phone_digits_reversed, created_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Value("${membership.contact-import.max-rows:10000}")
+    private int maxRows;
+
+    @Value("${membership.contact-import.chunk-size:500}")
+    private int chunkSize;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContactNgramIndex contactNgramIndex;
+
+    @Autowired
+    private ContactSearchCache contactSearchCache;
+
+    @Autowired
+    private SecondLevelCache secondLevelCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ObjectReader reader;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Timer chunkTimer;
+
+    private Counter importedRows;
+
+    private Counter failedRows;
+
+    private record Row(int index, CreateContactRequest request) {
+    }
+
+    @PostConstruct
+    void init() {
+        reader = objectMapper.readerFor(CreateContactRequest.class);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        chunkTimer = Timer.builder("membership.contacts.import.chunk")
+                .description("Time taken to validate and write one chunk of imported contacts")
+                .register(meterRegistry);
+        importedRows = Counter.builder("membership.contacts.import.rows")
+                .tag("result", "imported")
+                .register(meterRegistry);
+        failedRows = Counter.builder("membership.contacts.import.rows")
+                .tag("result", "failed")
+                .register(meterRegistry);
+    }
+
+    public ImportContactResponse importContacts(User user, InputStream inputStream) throws IOException {
+        List<ImportContactError> errors = new ArrayList<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int imported = 0;
+        int index = 0;
+
+        try (MappingIterator<CreateContactRequest> requests = reader.readValues(inputStream)) {
+            while (requests.hasNextValue()) {
+                if (index == maxRows) {
+                    errors.add(new ImportContactError(index, "Import is limited to " + maxRows + " contacts"));
+                    break;
+                }
+
+                try {
+                    chunk.add(new Row(index, requests.nextValue()));
+                } catch (DatabindException e) {
+                    errors.add(new ImportContactError(index, e.getOriginalMessage()));
+                }
+                index++;
+
+                if (chunk.size() == chunkSize) {
+                    imported += importChunk(user, chunk, errors);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonParseException e) {
+            if (index == 0 && chunk.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Body must be a JSON array or NDJSON");
+            }
+            // The rest of the body cannot be read, but what was read is still imported
+            errors.add(new ImportContactError(index, "Malformed JSON, rows from here on were not read"));
+        }
+        if (!chunk.isEmpty()) {
+            imported += importChunk(user, chunk, errors);
+        }
+
+        errors.sort(Comparator.comparing(ImportContactError::getRow));
+        failedRows.increment(errors.size());
+        return ImportContactResponse.builder()
+                .imported(imported)
+                .failed(errors.size())
+                .errors(errors)
+                .build();
+    }
+
+    private int importChunk(User user, List<Row> chunk, List<ImportContactError> errors) {
+        long startedAt = System.nanoTime();
+
+        List<String> violations = chunk.parallelStream()
+                .map(row -> validate(row.request()))
+                .toList();
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (violations.get(i) == null) {
+                valid.add(chunk.get(i));
+            } else {
+                errors.add(new ImportContactError(chunk.get(i).index(), violations.get(i)));
+            }
+        }
+
+        int written;
+        try {
+            written = insert(user, valid);
+        } catch (DataAccessException e) {
+            written = 0;
+            for (Row row : valid) {
+                try {
+                    written += insert(user, List.of(row));
+                } catch (DataAccessException rowException) {
+                    errors.add(new ImportContactError(row.index(), "Contact could not be saved"));
+                }
+            }
+        }
+
+        chunkTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        importedRows.increment(written);
+        return written;
+    }
+
+    private String validate(CreateContactRequest request) {
+        if (request == null) {
+            return "Contact must be an object";
+        }
+        Set<ConstraintViolation<CreateContactRequest>> violations = validator.validate(request);
+        return violations.isEmpty() ? null : new ConstraintViolationException(violations).getMessage();
+    }
+
+    private int insert(User user, List<Row> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        long createdAt = System.currentTimeMillis();
+        List<Contact> contacts = new ArrayList<>(rows.size());
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            CreateContactRequest request = row.request();
+            Contact contact = new Contact();
+            contact.setId(idGenerator.generate());
+            contact.setUser(user);
+            contact.setFirstName(request.getFirstName());
+            contact.setLastName(request.getLastName());
+            contact.setEmail(request.getEmail());
+            contact.setPhone(request.getPhone());
+            contact.setCreatedAt(createdAt);
+            contacts.add(contact);
+
+            String phoneDigits = PhoneNumbers.normalize(request.getPhone());
+            args.add(new Object[] { IdGenerator.toBytes(contact.getId()), user.getUsername(), contact.getFirstName(),
+                    contact.getLastName(), contact.getEmail(), contact.getPhone(), phoneDigits,
+                    PhoneNumbers.reverse(phoneDigits), createdAt });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT, args);
+            contactNgramIndex.indexAll(contacts);
+            contactSearchCache.invalidate(user.getUsername());
+        });
+        secondLevelCache.evictContactQueries();
+        return rows.size();
+    }
+}
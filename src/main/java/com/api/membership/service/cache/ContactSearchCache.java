@@ -0,0 +1,207 @@
+package com.api.membership.service.cache;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.api.membership.model.Address;
+import com.api.membership.model.Contact;
+import com.api.membership.model.request.SearchContactRequest;
+import com.api.membership.model.response.ContactResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Bounded cache of contact search results per user.
+ * <p>
+ * Each user has a generation and at most {@code membership.search-cache.max-entries-per-user}
+ * results, least recently used first out; the users themselves are bounded by {@code max-users}.
+ * Both levels are {@link StripedCache}s. Any committed write to one of the user's contacts or
+ * addresses moves the generation on and drops the user's results. A search that started under an
+ * older generation is not cached, so a result read before a commit never outlives it.
+ * <p>
+ * Writes committed by another instance, or issued through JDBC without invalidating, are not seen
+ * here, so every result is also dropped {@code expire-after-write-seconds} after it was cached.
+ * <p>
+ * The cache is an entity listener of {@link Contact} and {@link Address}, so every JPA write is
+ * seen. Writes issued through JDBC have to call {@link #invalidate(String)} themselves.
+ */
+@Component
+public class ContactSearchCache {
+
+    private static final int STRIPES = 16;
+
+    @Value("${membership.search-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${membership.search-cache.max-users:10000}")
+    private int maxUsers;
+
+    @Value("${membership.search-cache.max-entries-per-user:32}")
+    private int maxEntriesPerUser;
+
+    @Value("${membership.search-cache.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${membership.search-cache.expire-after-write-seconds:30}")
+    private long expireAfterWriteSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private StripedCache<String, UserResults> users;
+
+    private Counter hits;
+
+    private Counter misses;
+
+    private record Key(String name, String email, String phone, int page, int size, String after,
+            SearchContactRequest.Total total, SearchContactRequest.SortField sort, Sort.Direction direction,
+            boolean addresses) {
+
+        static Key of(SearchContactRequest request) {
+            SearchContactRequest.Total total = Objects.requireNonNullElse(request.getTotal(),
+                    SearchContactRequest.Total.EXACT);
+            // The page number is ignored once a cursor is given
+            int page = request.getAfter() == null ? request.getPage() : 0;
+            Sort.Direction direction = request.getSort() == null
+                    ? null
+                    : Objects.requireNonNullElse(request.getDirection(), Sort.Direction.ASC);
+            return new Key(request.getName(), request.getEmail(), request.getPhone(), page, request.getSize(),
+                    request.getAfter(), total, request.getSort(), direction, request.isAddresses());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        users = new StripedCache<>(maxUsers, STRIPES);
+
+        hits = Counter.builder("membership.search.cache")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("membership.search.cache")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("membership.search.cache.hit.ratio", this, ContactSearchCache::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("membership.search.cache.users", this, ContactSearchCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result of the search, or runs it and caches the result when the user's
+     * contacts did not change while it ran.
+     */
+    public Slice<ContactResponse> get(String username, SearchContactRequest request,
+            Supplier<Slice<ContactResponse>> search) {
+        if (!enabled) {
+            return search.get();
+        }
+
+        Key key = Key.of(request);
+        UserResults results = users.computeIfAbsent(username, ignored -> new UserResults(maxEntriesPerUser));
+        long generation;
+        synchronized (results) {
+            Slice<ContactResponse> cached = results.pages.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            generation = results.generation;
+        }
+
+        misses.increment();
+        Slice<ContactResponse> result = search.get();
+        if (result.getNumberOfElements() <= maxPageSize) {
+            synchronized (results) {
+                if (results.generation == generation) {
+                    results.pages.put(key, result,
+                            System.currentTimeMillis() + expireAfterWriteSeconds * 1000);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the user's cached results once the current transaction commits, or at once outside of
+     * one.
+     */
+    public void invalidate(String username) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advance(username);
+                }
+            });
+            return;
+        }
+        advance(username);
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void changed(Object entity) {
+        if (entity instanceof Contact contact) {
+            invalidate(contact.getUser().getUsername());
+        } else if (entity instanceof Address address) {
+            invalidate(address.getContact().getUser().getUsername());
+        }
+    }
+
+    private void advance(String username) {
+        UserResults results = users.get(username);
+        if (results == null) {
+            return;
+        }
+        synchronized (results) {
+            results.generation++;
+            results.pages.clear();
+        }
+    }
+
+    public void clear() {
+        users.removeIf(results -> {
+            synchronized (results) {
+                results.generation++;
+                results.pages.clear();
+            }
+            return true;
+        });
+    }
+
+    public int size() {
+        return users.size();
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static class UserResults {
+
+        private final StripedCache<Key, Slice<ContactResponse>> pages;
+
+        private long generation;
+
+        UserResults(int capacity) {
+            pages = new StripedCache<>(capacity, 1);
+        }
+    }
+}
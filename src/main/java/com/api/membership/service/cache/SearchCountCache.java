@@ -0,0 +1,71 @@
+package com.api.membership.service.cache;
+
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bounded cache of contact search totals, used when a client asks for an estimated total instead of
+ * an exact count.
+ * <p>
+ * A total is counted once per user and filter and then served for up to
+ * {@code membership.search-count-cache.ttl-ms}, so it can lag behind contacts created or deleted in
+ * the meantime. Callers correct it whenever a page proves it wrong, such as reaching the last page.
+ */
+@Component
+public class SearchCountCache {
+
+    private static final int STRIPES = 16;
+
+    @Value("${membership.search-count-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${membership.search-count-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private StripedCache<Key, Long> cache;
+
+    public record Key(String username, String name, String email, String phone) {
+    }
+
+    @PostConstruct
+    void init() {
+        cache = new StripedCache<>(maxSize, STRIPES);
+        cache.bindTo(meterRegistry, "membership.search.count.cache");
+    }
+
+    /**
+     * Returns the cached total for the key, counting and caching it when absent or expired. The
+     * count runs outside the stripe lock, so concurrent misses on one key may each count.
+     */
+    public long get(Key key, LongSupplier counter) {
+        Long cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long count = counter.getAsLong();
+        put(key, count);
+        return count;
+    }
+
+    public void put(Key key, long count) {
+        cache.put(key, count, System.currentTimeMillis() + ttlMs);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,111 @@
+package com.api.membership.service.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.api.membership.model.Contact;
+import com.api.membership.model.User;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Keeps Hibernate's second-level cache consistent with rows written outside the entity manager,
+ * and publishes hit, miss and put counts for each of its regions.
+ * <p>
+ * {@code User}, {@code Contact} and {@code Address} are cached in the bounded regions configured in
+ * {@code ehcache.xml}, next to a query region for the contact lookup. Entity manager writes and JPQL
+ * bulk statements maintain the regions themselves. The JDBC writers have to evict what they changed
+ * once their transaction has committed, or the cache keeps serving the old rows until they expire.
+ */
+@Component
+public class SecondLevelCache {
+
+    public static final String USERS = "membership.users";
+
+    public static final String CONTACTS = "membership.contacts";
+
+    public static final String ADDRESSES = "membership.addresses";
+
+    public static final String CONTACT_QUERIES = "membership.query.contacts";
+
+    private static final String DEFAULT_QUERIES = "default-query-results-region";
+
+    private static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Cache cache;
+
+    @PostConstruct
+    void init() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        cache = sessionFactory.getCache();
+
+        // Query regions are only created on first use, so they are listed up front
+        Statistics statistics = sessionFactory.getStatistics();
+        List<String> regions = new ArrayList<>(List.of(USERS, CONTACTS, ADDRESSES, CONTACT_QUERIES, DEFAULT_QUERIES,
+                UPDATE_TIMESTAMPS));
+        Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .filter(region -> !regions.contains(region))
+                .forEach(regions::add);
+        for (String region : regions) {
+            register(statistics, region, "hit", CacheRegionStatistics::getHitCount);
+            register(statistics, region, "miss", CacheRegionStatistics::getMissCount);
+            register(statistics, region, "put", CacheRegionStatistics::getPutCount);
+        }
+    }
+
+    private void register(Statistics statistics, String region, String result,
+            ToLongFunction<CacheRegionStatistics> count) {
+        FunctionCounter.builder("membership.second-level.cache", statistics, s -> {
+            CacheRegionStatistics regionStatistics = s.getCacheRegionStatistics(region);
+            return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+        })
+                .tag("region", region)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Evicts users whose rows were updated through JDBC.
+     */
+    public void evictUsers(Collection<String> usernames) {
+        for (String username : usernames) {
+            cache.evictEntityData(User.class, username);
+        }
+    }
+
+    public void evictAllUsers() {
+        cache.evictEntityData(User.class);
+    }
+
+    public void evictAllContacts() {
+        cache.evictEntityData(Contact.class);
+        cache.evictQueryRegion(CONTACT_QUERIES);
+    }
+
+    /**
+     * Evicts cached contact lookups after contacts were inserted through JDBC. Cached contacts stay,
+     * since inserting rows cannot make them stale.
+     */
+    public void evictContactQueries() {
+        cache.evictQueryRegion(CONTACT_QUERIES);
+    }
+}
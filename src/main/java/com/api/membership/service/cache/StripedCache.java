@@ -0,0 +1,176 @@
+package com.api.membership.service.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.lang.Nullable;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Bounded in-process map shared by the caches in this package.
+ * <p>
+ * Keys are spread over stripes, each a map in least recently used order behind its own lock, so
+ * lookups of different keys rarely contend. Once a stripe is full its least recently used entry is
+ * evicted. Every entry also carries its own expiry time and is dropped when read past it.
+ */
+class StripedCache<K, V> {
+
+    private final Stripe<K, V>[] stripes;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    @SuppressWarnings("unchecked")
+    StripedCache(int maxSize, int stripeCount) {
+        int stripeSize = Math.max(1, maxSize / stripeCount);
+        stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(stripeSize, evictions);
+        }
+    }
+
+    /**
+     * Publishes hits and misses of {@link #get(Object)} as {@code name}, along with
+     * {@code name.evictions} and the number of entries as {@code name.size}.
+     */
+    void bindTo(MeterRegistry meterRegistry, String name) {
+        FunctionCounter.builder(name, hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder(name, misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder(name + ".evictions", evictions, LongAdder::sum)
+                .register(meterRegistry);
+        Gauge.builder(name + ".size", this, StripedCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the value cached under the key, or null when it is absent or expired.
+     */
+    @Nullable
+    V get(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        Entry<V> entry;
+        synchronized (stripe) {
+            entry = stripe.live(key);
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    void put(K key, V value, long expiresAt) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    /**
+     * Returns the live value under the key, creating one that never expires when there is none.
+     * Lookups through here are not counted as hits or misses.
+     */
+    V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            Entry<V> entry = stripe.live(key);
+            if (entry == null) {
+                entry = new Entry<>(factory.apply(key), Long.MAX_VALUE);
+                stripe.put(key, entry);
+            }
+            return entry.value();
+        }
+    }
+
+    void remove(K key) {
+        Stripe<K, V> stripe = stripeFor(key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    /**
+     * Removes every entry whose value matches. This walks the whole cache, so it is meant for rare
+     * changes rather than the request path.
+     */
+    void removeIf(Predicate<? super V> filter) {
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.values().removeIf(entry -> filter.test(entry.value()));
+            }
+        }
+    }
+
+    void clear() {
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe<K, V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private Stripe<K, V> stripeFor(K key) {
+        return stripes[(key.hashCode() & 0x7fffffff) % stripes.length];
+    }
+
+    private static class Stripe<K, V> extends LinkedHashMap<K, Entry<V>> {
+
+        private final int capacity;
+
+        private final LongAdder evictions;
+
+        Stripe(int capacity, LongAdder evictions) {
+            super(capacity * 4 / 3 + 1, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Nullable
+        Entry<V> live(K key) {
+            Entry<V> entry = get(key);
+            if (entry != null && entry.expiresAt() < System.currentTimeMillis()) {
+                remove(key);
+                evictions.increment();
+                return null;
+            }
+            return entry;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
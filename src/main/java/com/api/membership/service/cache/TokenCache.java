@@ -0,0 +1,143 @@
+package com.api.membership.service.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.api.membership.model.User;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Bounded token to user cache placed in front of the token lookup in {@code UserRepository}.
+ * <p>
+ * Entries live for at most {@code membership.token-cache.ttl-ms} and never past the token's own
+ * {@code tokenExpiredAt}. Up to {@code max-size} tokens are kept in a {@link StripedCache}.
+ * <p>
+ * A token is invalidated both at once and after the surrounding transaction commits. Callers take a
+ * {@link #stamp(String)} before reading the user, and {@link #put(String, User, long, long)} drops
+ * the entry again if the token was invalidated since, so a row read before the commit cannot be
+ * cached after it.
+ */
+@Component
+public class TokenCache {
+
+    private static final int STRIPES = 16;
+
+    private static final int INVALIDATION_SLOTS = 4096;
+
+    @Value("${membership.token-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${membership.token-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private StripedCache<String, CachedUser> cache;
+
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_SLOTS);
+
+    @PostConstruct
+    void init() {
+        cache = new StripedCache<>(maxSize, STRIPES);
+        cache.bindTo(meterRegistry, "membership.token.cache");
+    }
+
+    /**
+     * Returns a detached copy of the cached user, or null when the token is unknown or expired.
+     */
+    @Nullable
+    public User get(String token) {
+        CachedUser cached = cache.get(token);
+        return cached == null ? null : cached.toUser();
+    }
+
+    /**
+     * Returns the stamp to hand to {@link #put(String, User, long, long)}, taken before the user is
+     * read.
+     */
+    public long stamp(String token) {
+        return invalidations.get(slot(token));
+    }
+
+    /**
+     * Caches the user under the given token and returns a detached copy of what was cached. Nothing
+     * stays cached when the token was invalidated after the stamp was taken.
+     */
+    public User put(String token, User user, long tokenExpiredAt, long stamp) {
+        long expiresAt = Math.min(System.currentTimeMillis() + ttlMs, tokenExpiredAt);
+        CachedUser cached = new CachedUser(user.getUsername(), user.getPassword(), user.getName(),
+                user.getToken(), user.getTokenExpiredAt());
+        cache.put(token, cached, expiresAt);
+        // Checked after the put: an invalidation either sees the entry or is seen here
+        if (invalidations.get(slot(token)) != stamp) {
+            cache.remove(token);
+        }
+        return cached.toUser();
+    }
+
+    /**
+     * Drops the token at once and again once the current transaction commits.
+     */
+    public void invalidate(@Nullable String token) {
+        if (token == null) {
+            return;
+        }
+
+        evict(token);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(token);
+                }
+            });
+        }
+    }
+
+    private void evict(String token) {
+        invalidations.incrementAndGet(slot(token));
+        cache.remove(token);
+    }
+
+    private int slot(String token) {
+        return (token.hashCode() & 0x7fffffff) % INVALIDATION_SLOTS;
+    }
+
+    /**
+     * Drops every token cached for the given user. This walks the whole cache, so it is meant for
+     * rare profile changes rather than the request path.
+     */
+    public void invalidateUser(String username) {
+        cache.removeIf(cached -> cached.username().equals(username));
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private record CachedUser(String username, String password, String name, String token, Long tokenExpiredAt) {
+
+        User toUser() {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword(password);
+            user.setName(name);
+            user.setToken(token);
+            user.setTokenExpiredAt(tokenExpiredAt);
+            return user;
+        }
+    }
+}
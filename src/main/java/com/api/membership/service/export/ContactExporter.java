@@ -0,0 +1,304 @@
+package com.api.membership.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import com.api.membership.model.User;
+import com.api.membership.service.id.IdGenerator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Streams every contact of a user, optionally with its addresses, as NDJSON or CSV.
+ * <p>
+ * Rows come from a single forward-only query. The fetch size of {@link Integer#MIN_VALUE} makes
+ * MySQL Connector/J stream them one at a time instead of reading the whole result into memory, and
+ * each row is written to the response as soon as it is read, so memory use does not depend on the
+ * number of contacts. Addresses are left joined and ordered by contact, so the rows of one contact
+ * are adjacent and only the contact being written is held.
+ * <p>
+ * A streaming result set keeps its connection busy until it is read to the end, which is why
+ * addresses are joined rather than queried per contact.
+ */
+@Component
+public class ContactExporter {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(ContactExporter.class);
+
+    private static final String SELECT_CONTACTS = "select c.id, c.first_name, c.last_name, c.email, c.phone "
+            + "from contacts c where c.username = ? order by c.id";
+
+    private static final String SELECT_CONTACTS_WITH_ADDRESSES = "select c.id, c.first_name, c.last_name, c.email, "
+            + "c.phone, a.id as address_id, a.street, a.city, a.province, a.country, a.postal_code "
+            + "from contacts c left join addresses a on a.contact_id = c.id where c.username = ? order by c.id, a.id";
+
+    private static final String[] CONTACT_COLUMNS = { "id", "firstName", "lastName", "email", "phone" };
+
+    private static final String[] ADDRESS_COLUMNS = { "addressId", "street", "city", "province", "country",
+            "postalCode" };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate streamingTemplate;
+
+    @PostConstruct
+    void init() {
+        streamingTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    /**
+     * Writes the export to the stream and returns the number of contacts written.
+     */
+    public long export(User user, Format format, boolean withAddresses, OutputStream outputStream)
+            throws IOException {
+        long startedAt = System.nanoTime();
+        RowWriter writer = format == Format.CSV
+                ? new CsvWriter(outputStream, withAddresses)
+                : new NdjsonWriter(outputStream, withAddresses);
+
+        try {
+            streamingTemplate.query(withAddresses ? SELECT_CONTACTS_WITH_ADDRESSES : SELECT_CONTACTS, writer,
+                    user.getUsername());
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            // The client went away, the statement is closed by now
+            throw e.getCause();
+        }
+
+        long elapsed = System.nanoTime() - startedAt;
+        String formatTag = format.name().toLowerCase(Locale.ROOT);
+        Timer.builder("membership.contacts.export")
+                .tag("format", formatTag)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        double rowsPerSecond = writer.contacts * 1e9 / Math.max(1, elapsed);
+        DistributionSummary.builder("membership.contacts.export.throughput")
+                .baseUnit("rows/s")
+                .tag("format", formatTag)
+                .register(meterRegistry)
+                .record(rowsPerSecond);
+        log.info("Exported {} contacts and {} addresses as {} in {} ms ({} rows/s)", writer.contacts,
+                writer.addresses, formatTag, TimeUnit.NANOSECONDS.toMillis(elapsed), Math.round(rowsPerSecond));
+        return writer.contacts;
+    }
+
+    /**
+     * Receives rows in contact order and writes each contact once all of its rows were seen.
+     */
+    private abstract static class RowWriter implements RowCallbackHandler {
+
+        protected final boolean withAddresses;
+
+        protected long contacts;
+
+        protected long addresses;
+
+        private byte[] currentId;
+
+        RowWriter(boolean withAddresses) {
+            this.withAddresses = withAddresses;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            byte[] id = rs.getBytes("id");
+            try {
+                if (!Arrays.equals(id, currentId)) {
+                    if (currentId != null) {
+                        endContact();
+                    }
+                    currentId = id;
+                    contacts++;
+                    startContact(rs, IdGenerator.fromBytes(id).toString());
+                }
+                if (withAddresses) {
+                    byte[] addressId = rs.getBytes("address_id");
+                    if (addressId != null) {
+                        addresses++;
+                        writeAddress(rs, IdGenerator.fromBytes(addressId).toString());
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void finish() throws IOException {
+            if (currentId != null) {
+                endContact();
+            }
+            close();
+        }
+
+        abstract void startContact(ResultSet rs, String id) throws SQLException, IOException;
+
+        abstract void writeAddress(ResultSet rs, String id) throws SQLException, IOException;
+
+        abstract void endContact() throws IOException;
+
+        abstract void close() throws IOException;
+    }
+
+    /**
+     * One JSON object per line, with addresses nested in an {@code addresses} array when requested.
+     */
+    private class NdjsonWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream outputStream, boolean withAddresses) throws IOException {
+            super(withAddresses);
+            this.generator = objectMapper.getFactory().createGenerator(outputStream);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        @Override
+        void startContact(ResultSet rs, String id) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", id);
+            generator.writeStringField("firstName", rs.getString("first_name"));
+            generator.writeStringField("lastName", rs.getString("last_name"));
+            generator.writeStringField("email", rs.getString("email"));
+            generator.writeStringField("phone", rs.getString("phone"));
+            if (withAddresses) {
+                generator.writeArrayFieldStart("addresses");
+            }
+        }
+
+        @Override
+        void writeAddress(ResultSet rs, String id) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("id", id);
+            generator.writeStringField("street", rs.getString("street"));
+            generator.writeStringField("city", rs.getString("city"));
+            generator.writeStringField("province", rs.getString("province"));
+            generator.writeStringField("country", rs.getString("country"));
+            generator.writeStringField("postalCode", rs.getString("postal_code"));
+            generator.writeEndObject();
+        }
+
+        @Override
+        void endContact() throws IOException {
+            if (withAddresses) {
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header line. With addresses, a contact takes one line per address and
+     * repeats its own columns; a contact without addresses still gets one line with empty address
+     * columns.
+     */
+    private static class CsvWriter extends RowWriter {
+
+        private final Writer writer;
+
+        private final String[] contact = new String[CONTACT_COLUMNS.length];
+
+        private boolean addressWritten;
+
+        CsvWriter(OutputStream outputStream, boolean withAddresses) throws IOException {
+            super(withAddresses);
+            this.writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            writeLine(CONTACT_COLUMNS, withAddresses ? ADDRESS_COLUMNS : new String[0]);
+        }
+
+        @Override
+        void startContact(ResultSet rs, String id) throws SQLException {
+            contact[0] = id;
+            contact[1] = rs.getString("first_name");
+            contact[2] = rs.getString("last_name");
+            contact[3] = rs.getString("email");
+            contact[4] = rs.getString("phone");
+            addressWritten = false;
+        }
+
+        @Override
+        void writeAddress(ResultSet rs, String id) throws SQLException, IOException {
+            writeLine(contact, new String[] { id, rs.getString("street"), rs.getString("city"),
+                    rs.getString("province"), rs.getString("country"), rs.getString("postal_code") });
+            addressWritten = true;
+        }
+
+        @Override
+        void endContact() throws IOException {
+            if (!addressWritten) {
+                writeLine(contact, withAddresses ? new String[ADDRESS_COLUMNS.length] : new String[0]);
+            }
+        }
+
+        @Override
+        void close() throws IOException {
+            writer.flush();
+        }
+
+        private void writeLine(String[] first, String[] second) throws IOException {
+            for (int i = 0; i < first.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(first[i]);
+            }
+            for (String value : second) {
+                writer.write(',');
+                writeField(value);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.api.membership.service.id;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Generates primary keys for contacts and addresses. Keys are stored as {@code BINARY(16)} and
+ * rendered in their canonical 36 character form in responses.
+ * <p>
+ * The implementation is chosen with {@code membership.id.generator}: {@code time-ordered} (the
+ * default) or {@code random}. Any other {@code IdGenerator} bean can be plugged in instead.
+ */
+public interface IdGenerator {
+
+    UUID generate();
+
+    /**
+     * Parses an id in its canonical string form, returning empty for anything else so callers can
+     * answer with 404 rather than a conversion error.
+     */
+    static Optional<UUID> parse(String id) {
+        if (id == null || id.length() != 36) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(id));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the 16 bytes stored in a {@code BINARY(16)} id column, for statements issued through JDBC.
+     */
+    static byte[] toBytes(UUID id) {
+        byte[] bytes = new byte[16];
+        long mostSigBits = id.getMostSignificantBits();
+        long leastSigBits = id.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (mostSigBits >>> (56 - 8 * i));
+            bytes[8 + i] = (byte) (leastSigBits >>> (56 - 8 * i));
+        }
+        return bytes;
+    }
+
+    static UUID fromBytes(byte[] bytes) {
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        for (int i = 0; i < 8; i++) {
+            mostSigBits = (mostSigBits << 8) | (bytes[i] & 0xff);
+            leastSigBits = (leastSigBits << 8) | (bytes[8 + i] & 0xff);
+        }
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
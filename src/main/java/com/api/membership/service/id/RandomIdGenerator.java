@@ -0,0 +1,20 @@
+package com.api.membership.service.id;
+
+import java.util.UUID;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates random version 4 ids, as contacts and addresses were created before ids became time
+ * ordered.
+ */
+@Component
+@ConditionalOnProperty(name = "membership.id.generator", havingValue = "random")
+public class RandomIdGenerator implements IdGenerator {
+
+    @Override
+    public UUID generate() {
+        return UUID.randomUUID();
+    }
+}
@@ -12,7 +12,8 @@ import org.springframework.web.method.support.ModelAndViewContainer;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.api.membership.model.User;
-import com.api.membership.repository.UserRepository;
+import com.api.membership.service.TokenService;
+import com.api.membership.service.routing.ReadYourWrites;
 
 import jakarta.servlet.http.HttpServletRequest;
 
@@ -20,7 +21,10 @@ import jakarta.servlet.http.HttpServletRequest;
 public class UserArgumentResolver implements HandlerMethodArgumentResolver {
 
     @Autowired
-    private UserRepository userRepository;
+    private TokenService tokenService;
+
+    @Autowired
+    private ReadYourWrites readYourWrites;
 
     @Override
     public boolean supportsParameter(MethodParameter parameter) {
@@ -37,13 +41,8 @@ public class UserArgumentResolver implements HandlerMethodArgumentResolver {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
         }
 
-        User user = userRepository.findFirstByToken(token)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized"));
-
-        if (user.getTokenExpiredAt() < System.currentTimeMillis()) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Unauthorized");
-        }
-
+        User user = tokenService.resolve(token);
+        readYourWrites.bind(user.getUsername());
         return user;
     }
 
@@ -0,0 +1,66 @@
+package com.api.membership.service.routing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Remembers which users committed a write in the last {@code membership.replicas.sticky-ms}, so
+ * their read-only transactions stay on the primary until replicas have had time to catch up.
+ * <p>
+ * The user is the one authenticated for the current request. Writes made outside a request, such as
+ * by the scheduled jobs, belong to nobody. The window is kept per process, so behind a load balancer
+ * it only covers the instance that took the write.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final String USERNAME_ATTRIBUTE = ReadYourWrites.class.getName() + ".username";
+
+    @Value("${membership.replicas.sticky-ms:5000}")
+    private long stickyMs;
+
+    private final Map<String, Long> writtenAt = new ConcurrentHashMap<>();
+
+    /**
+     * Records the authenticated user of the current request, for the transactions it runs.
+     */
+    public void bind(String username) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(USERNAME_ATTRIBUTE, username, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Nullable
+    public String currentUsername() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes == null ? null : (String) attributes.getAttribute(USERNAME_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public void written(String username) {
+        writtenAt.put(username, System.currentTimeMillis());
+    }
+
+    public boolean isSticky(String username) {
+        Long at = writtenAt.get(username);
+        return at != null && System.currentTimeMillis() - at < stickyMs;
+    }
+
+    public void clear() {
+        writtenAt.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${membership.replicas.sticky-ms:5000}")
+    public void purge() {
+        long cutoff = System.currentTimeMillis() - stickyMs;
+        writtenAt.values().removeIf(at -> at < cutoff);
+    }
+}
@@ -0,0 +1,97 @@
+package com.api.membership.service.routing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sends read-only transactions to a caught up replica and everything else to the primary.
+ * <p>
+ * The route is decided when a connection is first used, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager
+ * asks for a connection before the transaction is marked read-only. A read-only transaction stays on
+ * the primary while its user is sticky after a write of their own, or while no replica is within the
+ * lag tolerance. Work outside a transaction always goes to the primary.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    private final ReplicaSet replicaSet;
+
+    private final ReadYourWrites readYourWrites;
+
+    private final Counter toReplica;
+
+    private final Counter toPrimaryForWrite;
+
+    private final Counter toPrimaryWhileSticky;
+
+    private final Counter toPrimaryWhileLagging;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicaSet, ReadYourWrites readYourWrites,
+            MeterRegistry meterRegistry) {
+        this.replicaSet = replicaSet;
+        this.readYourWrites = readYourWrites;
+
+        Map<Object, Object> targets = new HashMap<>(replicaSet.dataSources());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+
+        toReplica = route(meterRegistry, "replica", "read-only");
+        toPrimaryForWrite = route(meterRegistry, PRIMARY, "write");
+        toPrimaryWhileSticky = route(meterRegistry, PRIMARY, "sticky");
+        toPrimaryWhileLagging = route(meterRegistry, PRIMARY, "lagging");
+    }
+
+    private static Counter route(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("membership.datasource.route")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!replicaSet.isEnabled() || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+
+        String username = readYourWrites.currentUsername();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            toPrimaryForWrite.increment();
+            if (username != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWrites.written(username);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+
+        if (username != null && readYourWrites.isSticky(username)) {
+            toPrimaryWhileSticky.increment();
+            return PRIMARY;
+        }
+
+        String replica = replicaSet.choose();
+        if (replica == null) {
+            toPrimaryWhileLagging.increment();
+            return PRIMARY;
+        }
+        toReplica.increment();
+        return replica;
+    }
+}
@@ -0,0 +1,230 @@
+package com.api.membership.service.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Connection pools for the read replicas listed in {@code membership.replicas.urls}, and their
+ * replication lag.
+ * <p>
+ * Every {@code check-interval-ms} the primary stamps the current time into
+ * {@code replica_heartbeat} and each replica is asked which stamp it has applied. A replica's lag
+ * is the age of that stamp, so it is an upper bound that is only as fine as the check interval and
+ * needs no replication privileges. Replicas further behind than {@code max-lag-ms}, or that could
+ * not be read, are left out until a later check finds them caught up. Until the first check, no
+ * replica is used.
+ * <p>
+ * The checks run on their own thread rather than the shared scheduler, so slow scheduled jobs cannot
+ * hold them back. Should a check still be late, a result older than {@code max-lag-ms} is no longer
+ * trusted and every replica counts as lagging until the next one completes.
+ */
+@Component
+public class ReplicaSet {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaSet.class);
+
+    private static final String WRITE_HEARTBEAT = "insert into replica_heartbeat (id, beat_at) values (1, ?) "
+            + "on duplicate key update beat_at = ?";
+
+    private static final String READ_HEARTBEAT = "select beat_at from replica_heartbeat where id = 1";
+
+    @Value("${membership.replicas.urls:}")
+    private String[] urls;
+
+    @Value("${membership.replicas.maximum-pool-size:50}")
+    private int maximumPoolSize;
+
+    @Value("${membership.replicas.max-lag-ms:2000}")
+    private long maxLagMs;
+
+    @Value("${membership.replicas.check-interval-ms:500}")
+    private long checkIntervalMs;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private JdbcTemplate primary;
+
+    private ScheduledExecutorService checker;
+
+    private volatile Health health = new Health(List.of(), 0);
+
+    /**
+     * The replicas found caught up by the check that started at {@code checkedAt}.
+     */
+    private record Health(List<Replica> caughtUp, long checkedAt) {
+    }
+
+    private static class Replica {
+
+        private final String name;
+
+        private final HikariDataSource dataSource;
+
+        private final JdbcTemplate jdbcTemplate;
+
+        private volatile long lagMs = Long.MAX_VALUE;
+
+        Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        primary = new JdbcTemplate(primaryDataSource);
+
+        List<String> configured = Arrays.stream(urls).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        for (int i = 0; i < configured.size(); i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(configured.get(i));
+            dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setUsername(dataSourceProperties.determineUsername());
+            dataSource.setPassword(dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            dataSource.setReadOnly(true);
+
+            Replica replica = new Replica(dataSource.getPoolName(), dataSource);
+            replicas.add(replica);
+            Gauge.builder("membership.datasource.replica.lag", replica, r -> r.lagMs)
+                    .description("Age of the newest heartbeat the replica has applied")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name)
+                    .register(meterRegistry);
+        }
+
+        if (replicas.isEmpty()) {
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::checkQuietly, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return !replicas.isEmpty();
+    }
+
+    /**
+     * The replica pools by the names {@link #choose()} returns.
+     */
+    public Map<Object, Object> dataSources() {
+        Map<Object, Object> dataSources = new HashMap<>();
+        for (Replica replica : replicas) {
+            dataSources.put(replica.name, replica.dataSource);
+        }
+        return dataSources;
+    }
+
+    /**
+     * Picks the next caught up replica in turn, or returns null when none is.
+     */
+    @Nullable
+    public String choose() {
+        List<Replica> candidates = caughtUp();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())).name;
+    }
+
+    public int healthyCount() {
+        return caughtUp().size();
+    }
+
+    private List<Replica> caughtUp() {
+        Health current = health;
+        if (System.currentTimeMillis() - current.checkedAt() > maxLagMs) {
+            return List.of();
+        }
+        return current.caughtUp();
+    }
+
+    private void checkQuietly() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            log.warn("Failed to check the replicas", e);
+        }
+    }
+
+    public void check() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+
+        long beatAt = System.currentTimeMillis();
+        try {
+            primary.update(WRITE_HEARTBEAT, beatAt, beatAt);
+        } catch (DataAccessException e) {
+            log.warn("Failed to write the replica heartbeat", e);
+        }
+
+        List<Replica> caughtUp = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            try {
+                Long seen = replica.jdbcTemplate.queryForObject(READ_HEARTBEAT, Long.class);
+                replica.lagMs = seen == null ? Long.MAX_VALUE : Math.max(0, System.currentTimeMillis() - seen);
+            } catch (DataAccessException e) {
+                log.warn("Failed to read the heartbeat of {}", replica.name, e);
+                replica.lagMs = Long.MAX_VALUE;
+            }
+            if (replica.lagMs <= maxLagMs) {
+                caughtUp.add(replica);
+            }
+        }
+        health = new Health(List.copyOf(caughtUp), beatAt);
+    }
+}
@@ -0,0 +1,71 @@
+package com.api.membership.service.search;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Sort;
+
+import com.api.membership.model.request.SearchContactRequest;
+import com.api.membership.service.id.IdGenerator;
+
+/**
+ * Opaque keyset cursor for contact search: the sort value and id of the last contact returned, in
+ * base64url. The next page starts with an index seek past that position instead of skipping rows.
+ * <p>
+ * Unsorted searches walk contacts in id order and their cursor is just the 16 id bytes. A sorted
+ * cursor appends the sort field and direction it was issued for, so it cannot be replayed against a
+ * different order, followed by the sort value, which may be null.
+ */
+public record ContactCursor(SearchContactRequest.SortField sort, Sort.Direction direction, String value, UUID id) {
+
+    private static final int ID_LENGTH = 16;
+
+    public static ContactCursor of(UUID id) {
+        return new ContactCursor(null, null, null, id);
+    }
+
+    public String encode() {
+        byte[] id = IdGenerator.toBytes(this.id);
+        if (sort == null) {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(id);
+        }
+
+        byte[] sortValue = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(ID_LENGTH + 2 + sortValue.length)
+                .put(id)
+                .put((byte) (sort.ordinal() * 2 + (direction == Sort.Direction.DESC ? 1 : 0)))
+                .put((byte) (value == null ? 0 : 1))
+                .put(sortValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static Optional<ContactCursor> decode(String cursor) {
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            if (bytes.length == ID_LENGTH) {
+                return Optional.of(of(IdGenerator.fromBytes(bytes)));
+            }
+            if (bytes.length < ID_LENGTH + 2) {
+                return Optional.empty();
+            }
+
+            UUID id = IdGenerator.fromBytes(Arrays.copyOf(bytes, ID_LENGTH));
+            int code = bytes[ID_LENGTH];
+            SearchContactRequest.SortField[] fields = SearchContactRequest.SortField.values();
+            if (code < 0 || code / 2 >= fields.length) {
+                return Optional.empty();
+            }
+            Sort.Direction direction = code % 2 == 1 ? Sort.Direction.DESC : Sort.Direction.ASC;
+            String value = bytes[ID_LENGTH + 1] == 0
+                    ? null
+                    : new String(bytes, ID_LENGTH + 2, bytes.length - ID_LENGTH - 2, StandardCharsets.UTF_8);
+            return Optional.of(new ContactCursor(fields[code / 2], direction, value, id));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+}
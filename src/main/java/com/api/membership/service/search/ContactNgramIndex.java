@@ -0,0 +1,163 @@
+package com.api.membership.service.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.api.membership.model.Contact;
+import com.api.membership.model.ContactNgram;
+import com.api.membership.model.User;
+import com.api.membership.service.id.IdGenerator;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+/**
+ * Trigram index over contact names and emails, kept in {@code contact_ngrams}. Phone numbers are
+ * searched through their normalized digits instead, see {@link PhoneNumbers}.
+ * <p>
+ * Every value is lower-cased and split into its overlapping three character substrings. A contact
+ * can only contain a search term if it holds every trigram of the term, so a search joins a few of
+ * the term's trigrams against the primary key {@code (username, field, ngram, contact_id)} to find
+ * candidates. The original {@code like} predicate still runs on those candidates to drop false
+ * positives. Terms shorter than three characters have no trigram and fall back to the scan.
+ * <p>
+ * The index is an entity listener of {@link Contact}, so every insert or update of a contact, through
+ * the services or a repository, rewrites its rows through JDBC in the same transaction. Rows
+ * reference the contact with {@code on delete cascade}, so deleting a contact drops them too.
+ */
+@Component
+public class ContactNgramIndex {
+
+    public static final String NAME = "n";
+
+    public static final String EMAIL = "e";
+
+    private static final int N = 3;
+
+    private static final int MAX_PROBES = 4;
+
+    private static final String INSERT = "insert ignore into contact_ngrams (username, field, ngram, contact_id) "
+            + "values (?, ?, ?, ?)";
+
+    private static final String DELETE = "delete from contact_ngrams where contact_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostPersist
+    public void index(Contact contact) {
+        indexAll(List.of(contact));
+    }
+
+    /**
+     * Indexes contacts written through JDBC, as one batch.
+     */
+    public void indexAll(Collection<Contact> contacts) {
+        List<Object[]> args = new ArrayList<>();
+        for (Contact contact : contacts) {
+            String username = contact.getUser().getUsername();
+            byte[] contactId = IdGenerator.toBytes(contact.getId());
+
+            Set<String> names = ngrams(contact.getFirstName());
+            names.addAll(ngrams(contact.getLastName()));
+            for (String ngram : names) {
+                args.add(new Object[] { username, NAME, ngram, contactId });
+            }
+            for (String ngram : ngrams(contact.getEmail())) {
+                args.add(new Object[] { username, EMAIL, ngram, contactId });
+            }
+        }
+
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT, args);
+        }
+    }
+
+    public void remove(UUID contactId) {
+        jdbcTemplate.update(DELETE, (Object) IdGenerator.toBytes(contactId));
+    }
+
+    public void removeAll(Collection<UUID> contactIds) {
+        List<Object[]> args = new ArrayList<>(contactIds.size());
+        for (UUID contactId : contactIds) {
+            args.add(new Object[] { IdGenerator.toBytes(contactId) });
+        }
+        jdbcTemplate.batchUpdate(DELETE, args);
+    }
+
+    @PostUpdate
+    public void reindex(Contact contact) {
+        remove(contact.getId());
+        index(contact);
+    }
+
+    /**
+     * Narrows a contact query to the contacts of the user whose field holds every trigram probed
+     * from the term. Returns null when the term is too short to probe.
+     */
+    public Predicate candidates(Root<Contact> root, CriteriaQuery<?> query, CriteriaBuilder builder,
+            User user, String field, String term) {
+        List<String> probes = probes(term);
+        if (probes.isEmpty()) {
+            return null;
+        }
+
+        List<Predicate> predicates = new ArrayList<>();
+        for (String probe : probes) {
+            Subquery<UUID> subquery = query.subquery(UUID.class);
+            Root<ContactNgram> ngram = subquery.from(ContactNgram.class);
+            subquery.select(ngram.get("contactId")).where(
+                    builder.equal(ngram.get("username"), user.getUsername()),
+                    builder.equal(ngram.get("field"), field),
+                    builder.equal(ngram.get("ngram"), probe));
+            predicates.add(root.get("id").in(subquery));
+        }
+        return builder.and(predicates.toArray(new Predicate[] {}));
+    }
+
+    static Set<String> ngrams(String value) {
+        Set<String> ngrams = new LinkedHashSet<>();
+        if (value == null) {
+            return ngrams;
+        }
+
+        int[] codePoints = value.toLowerCase(Locale.ROOT).codePoints().toArray();
+        for (int i = 0; i + N <= codePoints.length; i++) {
+            ngrams.add(new String(codePoints, i, N));
+        }
+        return ngrams;
+    }
+
+    /**
+     * Picks up to {@code MAX_PROBES} trigrams spread over the term. Each probe is one more index
+     * lookup, and beyond a few of them the candidate set rarely shrinks further.
+     */
+    static List<String> probes(String term) {
+        List<String> ngrams = new ArrayList<>(ngrams(term));
+        // Wildcards in the term still act as wildcards in the like predicate
+        ngrams.removeIf(ngram -> ngram.indexOf('%') >= 0 || ngram.indexOf('_') >= 0);
+        if (ngrams.size() <= MAX_PROBES) {
+            return ngrams;
+        }
+
+        List<String> probes = new ArrayList<>(MAX_PROBES);
+        for (int i = 0; i < MAX_PROBES; i++) {
+            probes.add(ngrams.get(i * (ngrams.size() - 1) / (MAX_PROBES - 1)));
+        }
+        return probes;
+    }
+}
@@ -0,0 +1,67 @@
+package com.api.membership.service.search;
+
+/**
+ * Normalizes phone numbers to the digits of their national number, so that {@code +62 812-345},
+ * {@code 0062812345} and {@code 0812345} all become {@code 812345}.
+ * <p>
+ * Numbers written in international form lose the country code when it is {@code DEFAULT_COUNTRY_CODE}
+ * and keep it otherwise; numbers in national form lose their leading trunk zero. Everything that is
+ * not a digit is dropped.
+ */
+public final class PhoneNumbers {
+
+    public static final String DEFAULT_COUNTRY_CODE = "62";
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * Returns the normalized digits, empty when the value holds no digit, or null for null.
+     */
+    public static String normalize(String phone) {
+        if (phone == null) {
+            return null;
+        }
+
+        String trimmed = phone.strip();
+        StringBuilder digits = new StringBuilder(digits(trimmed));
+
+        boolean international = trimmed.startsWith("+");
+        if (!international && digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            digits.delete(0, 2);
+            international = true;
+        }
+
+        if (international) {
+            if (digits.indexOf(DEFAULT_COUNTRY_CODE) == 0) {
+                digits.delete(0, DEFAULT_COUNTRY_CODE.length());
+            }
+        } else if (digits.length() > 0 && digits.charAt(0) == '0') {
+            digits.deleteCharAt(0);
+        }
+        return digits.toString();
+    }
+
+    /**
+     * Returns every digit of the value as written, without dropping a country code or trunk zero, or
+     * null for null.
+     */
+    public static String digits(String phone) {
+        if (phone == null) {
+            return null;
+        }
+
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    public static String reverse(String digits) {
+        return digits == null ? null : new StringBuilder(digits).reverse().toString();
+    }
+}
@@ -15,7 +15,6 @@
 package com.api.membership.service.security;
 
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.security.SecureRandom;
 import java.util.Arrays;
 
@@ -209,10 +208,31 @@ public class BCrypt {
 	static final int MIN_LOG_ROUNDS = 4;
 	static final int MAX_LOG_ROUNDS = 31;
 
+	// Length of the longest hash string, "$2a$10$" followed by 22 salt and 31 hash characters
+	private static final int BCRYPT_HASH_LEN = 60;
+
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	// Each thread keeps one instance and reuses its buffers for every hash it computes
+	private static final ThreadLocal<BCrypt> STATE = ThreadLocal.withInitial(BCrypt::new);
+
 	// Expanded Blowfish key
-	private int P[];
+	private final int P[] = new int[P_orig.length];
+
+	private final int S[] = new int[S_orig.length];
+
+	// Scratch buffers reused across hashes
+	private final int lr[] = new int[2];
+
+	private final int cdata[] = new int[bf_crypt_ciphertext.length];
+
+	private final byte raw[] = new byte[bf_crypt_ciphertext.length * 4];
 
-	private int S[];
+	private final byte saltb[] = new byte[BCRYPT_SALT_LEN];
+
+	private final char hash[] = new char[BCRYPT_HASH_LEN];
+
+	private byte keyb[] = new byte[72];
 
 	/**
 	 * Encode a byte array using bcrypt's slightly-modified base64 encoding scheme. Note
@@ -220,10 +240,12 @@ public class BCrypt {
 	 * encoding.
 	 * @param d the byte array to encode
 	 * @param len the number of bytes to encode
-	 * @param rs the destination buffer for the base64-encoded string
+	 * @param rs the destination buffer for the base64-encoded characters
+	 * @param pos the position in rs to start writing at
+	 * @return the position in rs after the last written character
 	 * @exception IllegalArgumentException if the length is invalid
 	 */
-	static void encode_base64(byte d[], int len, StringBuilder rs) throws IllegalArgumentException {
+	static int encode_base64(byte d[], int len, char rs[], int pos) throws IllegalArgumentException {
 		int off = 0;
 		int c1, c2;
 
@@ -233,25 +255,26 @@ public class BCrypt {
 
 		while (off < len) {
 			c1 = d[off++] & 0xff;
-			rs.append(base64_code[(c1 >> 2) & 0x3f]);
+			rs[pos++] = base64_code[(c1 >> 2) & 0x3f];
 			c1 = (c1 & 0x03) << 4;
 			if (off >= len) {
-				rs.append(base64_code[c1 & 0x3f]);
+				rs[pos++] = base64_code[c1 & 0x3f];
 				break;
 			}
 			c2 = d[off++] & 0xff;
 			c1 |= (c2 >> 4) & 0x0f;
-			rs.append(base64_code[c1 & 0x3f]);
+			rs[pos++] = base64_code[c1 & 0x3f];
 			c1 = (c2 & 0x0f) << 2;
 			if (off >= len) {
-				rs.append(base64_code[c1 & 0x3f]);
+				rs[pos++] = base64_code[c1 & 0x3f];
 				break;
 			}
 			c2 = d[off++] & 0xff;
 			c1 |= (c2 >> 6) & 0x03;
-			rs.append(base64_code[c1 & 0x3f]);
-			rs.append(base64_code[c2 & 0x3f]);
+			rs[pos++] = base64_code[c1 & 0x3f];
+			rs[pos++] = base64_code[c2 & 0x3f];
 		}
+		return pos;
 	}
 
 	/**
@@ -276,16 +299,32 @@ public class BCrypt {
 	 * @throws IllegalArgumentException if maxolen is invalid
 	 */
 	static byte[] decode_base64(String s, int maxolen) throws IllegalArgumentException {
-		StringBuilder rs = new StringBuilder();
-		int off = 0, slen = s.length(), olen = 0;
-		byte ret[];
+		byte ret[] = new byte[maxolen > 0 ? maxolen : 0];
+		int olen = decode_base64(s, 0, s.length(), ret, maxolen);
+		return olen == maxolen ? ret : Arrays.copyOf(ret, olen);
+	}
+
+	/**
+	 * Decode part of a string encoded using bcrypt's base64 scheme into an existing
+	 * buffer.
+	 * @param s the string to decode
+	 * @param off the position of the first character to decode
+	 * @param end the position after the last character to decode
+	 * @param ret the destination buffer
+	 * @param maxolen the maximum number of bytes to decode
+	 * @return the number of bytes decoded
+	 * @throws IllegalArgumentException if maxolen is invalid
+	 */
+	private static int decode_base64(String s, int off, int end, byte ret[], int maxolen)
+			throws IllegalArgumentException {
+		int olen = 0;
 		byte c1, c2, c3, c4, o;
 
 		if (maxolen <= 0) {
 			throw new IllegalArgumentException("Invalid maxolen");
 		}
 
-		while (off < slen - 1 && olen < maxolen) {
+		while (off < end - 1 && olen < maxolen) {
 			c1 = char64(s.charAt(off++));
 			c2 = char64(s.charAt(off++));
 			if (c1 == -1 || c2 == -1) {
@@ -293,8 +332,8 @@ public class BCrypt {
 			}
 			o = (byte) (c1 << 2);
 			o |= (c2 & 0x30) >> 4;
-			rs.append((char) o);
-			if (++olen >= maxolen || off >= slen) {
+			ret[olen] = o;
+			if (++olen >= maxolen || off >= end) {
 				break;
 			}
 			c3 = char64(s.charAt(off++));
@@ -303,22 +342,17 @@ public class BCrypt {
 			}
 			o = (byte) ((c2 & 0x0f) << 4);
 			o |= (c3 & 0x3c) >> 2;
-			rs.append((char) o);
-			if (++olen >= maxolen || off >= slen) {
+			ret[olen] = o;
+			if (++olen >= maxolen || off >= end) {
 				break;
 			}
 			c4 = char64(s.charAt(off++));
 			o = (byte) ((c3 & 0x03) << 6);
 			o |= c4;
-			rs.append((char) o);
+			ret[olen] = o;
 			++olen;
 		}
-
-		ret = new byte[olen];
-		for (off = 0; off < olen; off++) {
-			ret[off] = (byte) rs.charAt(off);
-		}
-		return ret;
+		return olen;
 	}
 
 	/**
@@ -327,117 +361,120 @@ public class BCrypt {
 	 * @param off the position in the array of the blocks
 	 */
 	private void encipher(int lr[], int off) {
+		final int[] P = this.P;
+		final int[] S = this.S;
 		int i, n, l = lr[off], r = lr[off + 1];
 
-		l ^= this.P[0];
+		l ^= P[0];
 		for (i = 0; i <= BLOWFISH_NUM_ROUNDS - 2;) {
 			// Feistel substitution on left word
-			n = this.S[(l >> 24) & 0xff];
-			n += this.S[0x100 | ((l >> 16) & 0xff)];
-			n ^= this.S[0x200 | ((l >> 8) & 0xff)];
-			n += this.S[0x300 | (l & 0xff)];
-			r ^= n ^ this.P[++i];
+			n = S[(l >> 24) & 0xff];
+			n += S[0x100 | ((l >> 16) & 0xff)];
+			n ^= S[0x200 | ((l >> 8) & 0xff)];
+			n += S[0x300 | (l & 0xff)];
+			r ^= n ^ P[++i];
 
 			// Feistel substitution on right word
-			n = this.S[(r >> 24) & 0xff];
-			n += this.S[0x100 | ((r >> 16) & 0xff)];
-			n ^= this.S[0x200 | ((r >> 8) & 0xff)];
-			n += this.S[0x300 | (r & 0xff)];
-			l ^= n ^ this.P[++i];
+			n = S[(r >> 24) & 0xff];
+			n += S[0x100 | ((r >> 16) & 0xff)];
+			n ^= S[0x200 | ((r >> 8) & 0xff)];
+			n += S[0x300 | (r & 0xff)];
+			l ^= n ^ P[++i];
 		}
-		lr[off] = r ^ this.P[BLOWFISH_NUM_ROUNDS + 1];
+		lr[off] = r ^ P[BLOWFISH_NUM_ROUNDS + 1];
 		lr[off + 1] = l;
 	}
 
 	/**
 	 * Cycically extract a word of key material
 	 * @param data the string to extract the data from
-	 * @param offp a "pointer" (as a one-entry array) to the current offset into data
-	 * @param signp a "pointer" (as a one-entry array) to the cumulative flag for
-	 * non-benign sign extension
-	 * @return correct and buggy next word of material from data as int[2]
+	 * @param len the number of bytes of data to cycle over
+	 * @param off the current offset into data
+	 * @return the next word of material from data
 	 */
-	private static int[] streamtowords(byte data[], int offp[], int signp[]) {
-		int i;
-		int words[] = { 0, 0 };
-		int off = offp[0];
-		int sign = signp[0];
-
-		for (i = 0; i < 4; i++) {
-			words[0] = (words[0] << 8) | (data[off] & 0xff);
-			words[1] = (words[1] << 8) | data[off]; // sign extension bug
-			if (i > 0) {
-				sign |= words[1] & 0x80;
+	private static int streamtoword(byte data[], int len, int off) {
+		int word = 0;
+		for (int i = 0; i < 4; i++) {
+			word = (word << 8) | (data[off] & 0xff);
+			if (++off == len) {
+				off = 0;
 			}
-			off = (off + 1) % data.length;
 		}
-
-		offp[0] = off;
-		signp[0] = sign;
-		return words;
+		return word;
 	}
 
 	/**
-	 * Cycically extract a word of key material
+	 * Cycically extract a word of key material, with sign-extension bug
 	 * @param data the string to extract the data from
-	 * @param offp a "pointer" (as a one-entry array) to the current offset into data
+	 * @param len the number of bytes of data to cycle over
+	 * @param off the current offset into data
 	 * @return the next word of material from data
 	 */
-	private static int streamtoword(byte data[], int offp[]) {
-		int signp[] = { 0 };
-		return streamtowords(data, offp, signp)[0];
+	private static int streamtoword_bug(byte data[], int len, int off) {
+		int word = 0;
+		for (int i = 0; i < 4; i++) {
+			word = (word << 8) | data[off]; // sign extension bug
+			if (++off == len) {
+				off = 0;
+			}
+		}
+		return word;
 	}
 
 	/**
-	 * Cycically extract a word of key material, with sign-extension bug
-	 * @param data the string to extract the data from
-	 * @param offp a "pointer" (as a one-entry array) to the current offset into data
-	 * @return the next word of material from data
+	 * Advance an offset into key material past the word just extracted
+	 * @param off the current offset
+	 * @param len the number of bytes of data to cycle over
+	 * @return the offset of the next word
 	 */
-	private static int streamtoword_bug(byte data[], int offp[]) {
-		int signp[] = { 0 };
-		return streamtowords(data, offp, signp)[1];
+	private static int nextword(int off, int len) {
+		return (off + 4) % len;
 	}
 
 	/**
 	 * Initialise the Blowfish key schedule
 	 */
 	private void init_key() {
-		this.P = P_orig.clone();
-		this.S = S_orig.clone();
+		System.arraycopy(P_orig, 0, this.P, 0, P_orig.length);
+		System.arraycopy(S_orig, 0, this.S, 0, S_orig.length);
 	}
 
 	/**
 	 * Key the Blowfish cipher
 	 * @param key an array containing the key
+	 * @param klen the number of bytes of key to use
 	 * @param sign_ext_bug true to implement the 2x bug
-	 * @param safety bit 16 is set when the safety measure is requested
 	 */
-	private void key(byte key[], boolean sign_ext_bug, int safety) {
+	private void key(byte key[], int klen, boolean sign_ext_bug) {
+		final int[] P = this.P;
+		final int[] S = this.S;
+		final int[] lr = this.lr;
 		int i;
-		int koffp[] = { 0 };
-		int lr[] = { 0, 0 };
-		int plen = this.P.length, slen = this.S.length;
+		int koff = 0;
+		int plen = P.length, slen = S.length;
 
 		for (i = 0; i < plen; i++) {
 			if (!sign_ext_bug) {
-				this.P[i] = this.P[i] ^ streamtoword(key, koffp);
+				P[i] = P[i] ^ streamtoword(key, klen, koff);
 			}
 			else {
-				this.P[i] = this.P[i] ^ streamtoword_bug(key, koffp);
+				P[i] = P[i] ^ streamtoword_bug(key, klen, koff);
 			}
+			koff = nextword(koff, klen);
 		}
 
+		lr[0] = 0;
+		lr[1] = 0;
 		for (i = 0; i < plen; i += 2) {
 			encipher(lr, 0);
-			this.P[i] = lr[0];
-			this.P[i + 1] = lr[1];
+			P[i] = lr[0];
+			P[i + 1] = lr[1];
 		}
 
 		for (i = 0; i < slen; i += 2) {
 			encipher(lr, 0);
-			this.S[i] = lr[0];
-			this.S[i + 1] = lr[1];
+			S[i] = lr[0];
+			S[i + 1] = lr[1];
 		}
 	}
 
@@ -446,25 +483,36 @@ public class BCrypt {
 	 * Future-Adaptable Password Scheme" https://www.openbsd.org/papers/bcrypt-paper.ps
 	 * @param data salt information
 	 * @param key password information
+	 * @param klen the number of bytes of key to use
 	 * @param sign_ext_bug true to implement the 2x bug
 	 * @param safety bit 16 is set when the safety measure is requested
 	 */
-	private void ekskey(byte data[], byte key[], boolean sign_ext_bug, int safety) {
-		int i;
-		int koffp[] = { 0 }, doffp[] = { 0 };
-		int lr[] = { 0, 0 };
-		int plen = this.P.length, slen = this.S.length;
-		int signp[] = { 0 }; // non-benign sign-extension flag
+	private void ekskey(byte data[], byte key[], int klen, boolean sign_ext_bug, int safety) {
+		final int[] P = this.P;
+		final int[] S = this.S;
+		final int[] lr = this.lr;
+		int i, j;
+		int koff = 0, doff = 0, dlen = data.length;
+		int plen = P.length, slen = S.length;
+		int sign = 0; // non-benign sign-extension flag
 		int diff = 0; // zero iff correct and buggy are same
 
 		for (i = 0; i < plen; i++) {
-			int words[] = streamtowords(key, koffp, signp);
-			diff |= words[0] ^ words[1];
-			this.P[i] = this.P[i] ^ words[sign_ext_bug ? 1 : 0];
+			int word = 0, word_bug = 0;
+			for (j = 0; j < 4; j++) {
+				word = (word << 8) | (key[koff] & 0xff);
+				word_bug = (word_bug << 8) | key[koff]; // sign extension bug
+				if (j > 0) {
+					sign |= word_bug & 0x80;
+				}
+				if (++koff == klen) {
+					koff = 0;
+				}
+			}
+			diff |= word ^ word_bug;
+			P[i] = P[i] ^ (sign_ext_bug ? word_bug : word);
 		}
 
-		int sign = signp[0];
-
 		/*
 		 * At this point, "diff" is zero iff the correct and buggy algorithms produced
 		 * exactly the same result. If so and if "sign" is non-zero, which indicates that
@@ -491,22 +539,28 @@ public class BCrypt {
 		 * that could be directly specified by a password to the buggy algorithm (and to
 		 * the fully correct one as well, but that's a side-effect).
 		 */
-		this.P[0] ^= sign;
+		P[0] ^= sign;
 
+		lr[0] = 0;
+		lr[1] = 0;
 		for (i = 0; i < plen; i += 2) {
-			lr[0] ^= streamtoword(data, doffp);
-			lr[1] ^= streamtoword(data, doffp);
+			lr[0] ^= streamtoword(data, dlen, doff);
+			doff = nextword(doff, dlen);
+			lr[1] ^= streamtoword(data, dlen, doff);
+			doff = nextword(doff, dlen);
 			encipher(lr, 0);
-			this.P[i] = lr[0];
-			this.P[i + 1] = lr[1];
+			P[i] = lr[0];
+			P[i + 1] = lr[1];
 		}
 
 		for (i = 0; i < slen; i += 2) {
-			lr[0] ^= streamtoword(data, doffp);
-			lr[1] ^= streamtoword(data, doffp);
+			lr[0] ^= streamtoword(data, dlen, doff);
+			doff = nextword(doff, dlen);
+			lr[1] ^= streamtoword(data, dlen, doff);
+			doff = nextword(doff, dlen);
 			encipher(lr, 0);
-			this.S[i] = lr[0];
-			this.S[i + 1] = lr[1];
+			S[i] = lr[0];
+			S[i + 1] = lr[1];
 		}
 	}
 
@@ -518,17 +572,19 @@ public class BCrypt {
 	}
 
 	/**
-	 * Perform the central password hashing step in the bcrypt scheme
+	 * Perform the central password hashing step in the bcrypt scheme, leaving the binary
+	 * hashed password in this instance's raw buffer
 	 * @param password the password to hash
+	 * @param plen the number of bytes of password to use
 	 * @param salt the binary salt to hash with the password
+	 * @param saltlen the number of salt bytes that were decoded
 	 * @param log_rounds the binary logarithm of the number of rounds of hashing to apply
 	 * @param sign_ext_bug true to implement the 2x bug
 	 * @param safety bit 16 is set when the safety measure is requested
-	 * @return an array containing the binary hashed password
 	 */
-	private byte[] crypt_raw(byte password[], byte salt[], int log_rounds, boolean sign_ext_bug, int safety,
+	private void crypt_raw(byte password[], int plen, byte salt[], int saltlen, int log_rounds, boolean sign_ext_bug, int safety,
 			boolean for_check) {
-		int cdata[] = bf_crypt_ciphertext.clone();
+		final int[] cdata = this.cdata;
 		int clen = cdata.length;
 
 		long rounds;
@@ -548,35 +604,33 @@ public class BCrypt {
 			}
 		}
 
-		if (salt.length != BCRYPT_SALT_LEN) {
+		if (saltlen != BCRYPT_SALT_LEN) {
 			throw new IllegalArgumentException("Bad salt length");
 		}
+		if (plen == 0) {
+			throw new IllegalArgumentException("Empty password cannot be hashed without a revision");
+		}
 
 		init_key();
-		ekskey(salt, password, sign_ext_bug, safety);
-		for (int i = 0; i < rounds; i++) {
-			key(password, sign_ext_bug, safety);
-			key(salt, false, safety);
+		ekskey(salt, password, plen, sign_ext_bug, safety);
+		for (long i = 0; i < rounds; i++) {
+			key(password, plen, sign_ext_bug);
+			key(salt, salt.length, false);
 		}
 
+		System.arraycopy(bf_crypt_ciphertext, 0, cdata, 0, clen);
 		for (int i = 0; i < 64; i++) {
 			for (int j = 0; j < (clen >> 1); j++) {
 				encipher(cdata, j << 1);
 			}
 		}
 
-		byte[] ret = new byte[clen * 4];
 		for (int i = 0, j = 0; i < clen; i++) {
-			ret[j++] = (byte) ((cdata[i] >> 24) & 0xff);
-			ret[j++] = (byte) ((cdata[i] >> 16) & 0xff);
-			ret[j++] = (byte) ((cdata[i] >> 8) & 0xff);
-			ret[j++] = (byte) (cdata[i] & 0xff);
+			raw[j++] = (byte) ((cdata[i] >> 24) & 0xff);
+			raw[j++] = (byte) ((cdata[i] >> 16) & 0xff);
+			raw[j++] = (byte) ((cdata[i] >> 8) & 0xff);
+			raw[j++] = (byte) (cdata[i] & 0xff);
 		}
-		return ret;
-	}
-
-	private static String hashpwforcheck(byte[] passwordb, String salt) {
-		return hashpw(passwordb, salt, true);
 	}
 
 	/**
@@ -600,16 +654,21 @@ public class BCrypt {
 	 * @return the hashed password
 	 */
 	public static String hashpw(byte passwordb[], String salt) {
-		return hashpw(passwordb, salt, false);
+		BCrypt B = STATE.get();
+		int len = B.hashpw(passwordb, salt, false);
+		return new String(B.hash, 0, len);
 	}
 
-	private static String hashpw(byte passwordb[], String salt, boolean for_check) {
-		BCrypt B;
-		String real_salt;
-		byte saltb[], hashed[];
+	/**
+	 * Hash a password into this instance's hash buffer
+	 * @param passwordb the password to hash, as a byte array
+	 * @param salt the salt to hash with
+	 * @param for_check true when checking an existing hash rather than creating one
+	 * @return the number of characters written to the hash buffer
+	 */
+	private int hashpw(byte passwordb[], String salt, boolean for_check) {
 		char minor = (char) 0;
-		int rounds, off;
-		StringBuilder rs = new StringBuilder();
+		int rounds, off, plen;
 
 		if (salt == null) {
 			throw new IllegalArgumentException("salt cannot be null");
@@ -645,29 +704,36 @@ public class BCrypt {
 		}
 		rounds = Integer.parseInt(salt.substring(off, off + 2));
 
-		real_salt = salt.substring(off + 3, off + 25);
-		saltb = decode_base64(real_salt, BCRYPT_SALT_LEN);
+		int saltlen = decode_base64(salt, off + 3, off + 25, saltb, BCRYPT_SALT_LEN);
 
-		if (minor >= 'a') {
-			passwordb = Arrays.copyOf(passwordb, passwordb.length + 1);
+		// Revisions from 2a on hash the terminating NUL of the password as well
+		plen = minor >= 'a' ? passwordb.length + 1 : passwordb.length;
+		if (keyb.length < plen) {
+			keyb = new byte[Math.max(plen, keyb.length * 2)];
 		}
+		System.arraycopy(passwordb, 0, keyb, 0, passwordb.length);
+		keyb[passwordb.length] = 0;
 
-		B = new BCrypt();
-		hashed = B.crypt_raw(passwordb, saltb, rounds, minor == 'x', minor == 'a' ? 0x10000 : 0, for_check);
-
-		rs.append("$2");
-		if (minor >= 'a') {
-			rs.append(minor);
+		try {
+			crypt_raw(keyb, plen, saltb, saltlen, rounds, minor == 'x', minor == 'a' ? 0x10000 : 0, for_check);
 		}
-		rs.append("$");
-		if (rounds < 10) {
-			rs.append("0");
+		finally {
+			Arrays.fill(keyb, 0, plen, (byte) 0);
 		}
-		rs.append(rounds);
-		rs.append("$");
-		encode_base64(saltb, saltb.length, rs);
-		encode_base64(hashed, bf_crypt_ciphertext.length * 4 - 1, rs);
-		return rs.toString();
+
+		int pos = 0;
+		hash[pos++] = '$';
+		hash[pos++] = '2';
+		if (minor >= 'a') {
+			hash[pos++] = minor;
+		}
+		hash[pos++] = '$';
+		hash[pos++] = (char) ('0' + rounds / 10);
+		hash[pos++] = (char) ('0' + rounds % 10);
+		hash[pos++] = '$';
+		pos = encode_base64(saltb, saltb.length, hash, pos);
+		pos = encode_base64(raw, bf_crypt_ciphertext.length * 4 - 1, hash, pos);
+		return pos;
 	}
 
 	/**
@@ -680,7 +746,7 @@ public class BCrypt {
 	 * @exception IllegalArgumentException if prefix or log_rounds is invalid
 	 */
 	public static String gensalt(String prefix, int log_rounds, SecureRandom random) throws IllegalArgumentException {
-		StringBuilder rs = new StringBuilder();
+		char rs[] = new char[29];
 		byte rnd[] = new byte[BCRYPT_SALT_LEN];
 
 		if (!prefix.startsWith("$2")
@@ -693,16 +759,16 @@ public class BCrypt {
 
 		random.nextBytes(rnd);
 
-		rs.append("$2");
-		rs.append(prefix.charAt(2));
-		rs.append("$");
-		if (log_rounds < 10) {
-			rs.append("0");
-		}
-		rs.append(log_rounds);
-		rs.append("$");
-		encode_base64(rnd, rnd.length, rs);
-		return rs.toString();
+		int pos = 0;
+		rs[pos++] = '$';
+		rs[pos++] = '2';
+		rs[pos++] = prefix.charAt(2);
+		rs[pos++] = '$';
+		rs[pos++] = (char) ('0' + log_rounds / 10);
+		rs[pos++] = (char) ('0' + log_rounds % 10);
+		rs[pos++] = '$';
+		pos = encode_base64(rnd, rnd.length, rs, pos);
+		return new String(rs, 0, pos);
 	}
 
 	/**
@@ -714,7 +780,7 @@ public class BCrypt {
 	 * @exception IllegalArgumentException if prefix or log_rounds is invalid
 	 */
 	public static String gensalt(String prefix, int log_rounds) throws IllegalArgumentException {
-		return gensalt(prefix, log_rounds, new SecureRandom());
+		return gensalt(prefix, log_rounds, RANDOM);
 	}
 
 	/**
@@ -737,7 +803,7 @@ public class BCrypt {
 	 * @exception IllegalArgumentException if log_rounds is invalid
 	 */
 	public static String gensalt(int log_rounds) throws IllegalArgumentException {
-		return gensalt(log_rounds, new SecureRandom());
+		return gensalt(log_rounds, RANDOM);
 	}
 
 	public static String gensalt(String prefix) {
@@ -761,7 +827,7 @@ public class BCrypt {
 	 */
 	public static boolean checkpw(String plaintext, String hashed) {
 		byte[] passwordb = plaintext.getBytes(StandardCharsets.UTF_8);
-		return equalsNoEarlyReturn(hashed, hashpwforcheck(passwordb, hashed));
+		return checkpw(passwordb, hashed);
 	}
 
 	/**
@@ -772,11 +838,40 @@ public class BCrypt {
 	 * @since 5.3
 	 */
 	public static boolean checkpw(byte[] passwordb, String hashed) {
-		return equalsNoEarlyReturn(hashed, hashpwforcheck(passwordb, hashed));
+		BCrypt B = STATE.get();
+		int len = B.hashpw(passwordb, hashed, true);
+		return equalsNoEarlyReturn(B.hash, len, hashed);
 	}
 
-	static boolean equalsNoEarlyReturn(String a, String b) {
-		return MessageDigest.isEqual(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+	/**
+	 * Compare a computed hash with a stored one in time independent of where they differ,
+	 * without materialising the computed hash as a string
+	 */
+	static boolean equalsNoEarlyReturn(char a[], int alen, String b) {
+		int blen = b.length();
+		int result = alen ^ blen;
+		for (int i = 0; i < alen; i++) {
+			result |= a[i] ^ (i < blen ? b.charAt(i) : 0);
+		}
+		return result == 0;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Read the log2 cost factor a hash was computed with
+	 * @param hashed the previously-hashed password
+	 * @return the log2 of the number of rounds of hashing that were applied
+	 * @throws IllegalArgumentException if the hash is not a bcrypt hash
+	 */
+	public static int log_rounds(String hashed) {
+		if (hashed == null || hashed.length() < 28 || hashed.charAt(0) != '$' || hashed.charAt(1) != '2') {
+			throw new IllegalArgumentException("Invalid hash");
+		}
+		int off = hashed.charAt(2) == '$' ? 3 : 4;
+		try {
+			return Integer.parseInt(hashed.substring(off, off + 2));
+		}
+		catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid hash", e);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package com.api.membership.service.security;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Token-bucket limiter for login attempts, keyed by username and by client address.
+ * <p>
+ * Buckets live in fixed-size arrays of atomic longs, so memory does not grow with the number of
+ * distinct keys and no lock is taken. Each key hashes to one slot in each of two rows with a seed
+ * chosen at startup. An attempt is allowed while either slot still has a token, and takes one from
+ * every slot that has one, so a key is refused only once both of its slots are exhausted and an
+ * attacker cannot aim collisions at a particular victim.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final int TOKEN_BITS = 24;
+
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+    @Value("${membership.login-throttle.stripes:65536}")
+    private int stripes;
+
+    @Value("${membership.login-throttle.username.capacity:10}")
+    private int usernameCapacity;
+
+    @Value("${membership.login-throttle.username.refill-per-minute:10}")
+    private int usernameRefillPerMinute;
+
+    @Value("${membership.login-throttle.address.capacity:50}")
+    private int addressCapacity;
+
+    @Value("${membership.login-throttle.address.refill-per-minute:100}")
+    private int addressRefillPerMinute;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final long epoch = System.currentTimeMillis() - 1;
+
+    private Buckets usernames;
+
+    private Buckets addresses;
+
+    private Counter usernameRejected;
+
+    private Counter addressRejected;
+
+    @PostConstruct
+    void init() {
+        SecureRandom random = new SecureRandom();
+        usernames = new Buckets(stripes, usernameCapacity, usernameRefillPerMinute, random.nextInt(), random.nextInt());
+        addresses = new Buckets(stripes, addressCapacity, addressRefillPerMinute, random.nextInt(), random.nextInt());
+
+        usernameRejected = Counter.builder("membership.login.throttled")
+                .tag("key", "username")
+                .register(meterRegistry);
+        addressRejected = Counter.builder("membership.login.throttled")
+                .tag("key", "address")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes one attempt from the budgets of the username and the client address, returning false when
+     * either is exhausted.
+     */
+    public boolean tryAcquire(String username, String address) {
+        long now = System.currentTimeMillis() - epoch;
+
+        if (!addresses.tryAcquire(address, now)) {
+            addressRejected.increment();
+            return false;
+        }
+        if (!usernames.tryAcquire(username, now)) {
+            usernameRejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private static final class Buckets {
+
+        private final AtomicLongArray first;
+
+        private final AtomicLongArray second;
+
+        private final int capacity;
+
+        private final long millisPerToken;
+
+        private final int firstSeed;
+
+        private final int secondSeed;
+
+        Buckets(int stripes, int capacity, int refillPerMinute, int firstSeed, int secondSeed) {
+            if (capacity <= 0 || capacity > TOKEN_MASK) {
+                throw new IllegalArgumentException("Bucket capacity must be between 1 and " + TOKEN_MASK);
+            }
+            this.first = new AtomicLongArray(stripes);
+            this.second = new AtomicLongArray(stripes);
+            this.capacity = capacity;
+            this.millisPerToken = Math.max(1, 60_000L / refillPerMinute);
+            this.firstSeed = firstSeed;
+            this.secondSeed = secondSeed;
+        }
+
+        boolean tryAcquire(String key, long now) {
+            int hash = key.hashCode();
+            boolean fromFirst = take(first, slot(hash, firstSeed, first.length()), now);
+            boolean fromSecond = take(second, slot(hash, secondSeed, second.length()), now);
+            return fromFirst || fromSecond;
+        }
+
+        private int slot(int hash, int seed, int length) {
+            int h = hash ^ seed;
+            h ^= h >>> 16;
+            h *= 0x85ebca6b;
+            h ^= h >>> 13;
+            h *= 0xc2b2ae35;
+            h ^= h >>> 16;
+            return (h & 0x7fffffff) % length;
+        }
+
+        /**
+         * Refills the bucket for the time elapsed since its last refill and takes a token if one is
+         * left. The state packs the refill timestamp above {@code TOKEN_BITS} bits of token count; an
+         * untouched slot reads as zero and starts full.
+         */
+        private boolean take(AtomicLongArray buckets, int slot, long now) {
+            while (true) {
+                long state = buckets.get(slot);
+                long refilledAt;
+                long tokens;
+                if (state == 0) {
+                    refilledAt = now;
+                    tokens = capacity;
+                } else {
+                    refilledAt = state >>> TOKEN_BITS;
+                    tokens = state & TOKEN_MASK;
+                    long refill = (now - refilledAt) / millisPerToken;
+                    if (refill > 0) {
+                        tokens = Math.min(capacity, tokens + refill);
+                        refilledAt = tokens == capacity ? now : refilledAt + refill * millisPerToken;
+                    }
+                }
+
+                if (tokens == 0) {
+                    return false;
+                }
+
+                long next = (refilledAt << TOKEN_BITS) | (tokens - 1);
+                if (buckets.compareAndSet(slot, state, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
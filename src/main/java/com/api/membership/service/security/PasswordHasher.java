@@ -0,0 +1,208 @@
+package com.api.membership.service.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs BCrypt hashing and verification on a dedicated, fixed-size executor.
+ * <p>
+ * The pool is sized for CPU-bound work and fed from a bounded queue, so a login burst can occupy at
+ * most {@code membership.password.threads} cores. Once the queue is full further callers are turned
+ * away with 503 instead of piling up on request threads.
+ * <p>
+ * Unless {@code membership.password.cost} pins it, the BCrypt cost factor is calibrated at startup to
+ * the highest value whose hash still completes within {@code membership.password.target-latency-ms}
+ * on this machine, bounded by the configured minimum and maximum.
+ * <p>
+ * Instances on different hardware calibrate to different costs, so a stored hash is only upgraded,
+ * and only once it falls more than {@code membership.password.rehash-tolerance} below this instance's
+ * cost. It is never lowered unless it is above {@code max-cost}.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final int CALIBRATION_SAMPLES = 3;
+
+    @Value("${membership.password.threads:0}")
+    private int threads;
+
+    @Value("${membership.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${membership.password.cost:0}")
+    private int fixedCost;
+
+    @Value("${membership.password.target-latency-ms:250}")
+    private long targetLatencyMs;
+
+    @Value("${membership.password.min-cost:10}")
+    private int minCost;
+
+    @Value("${membership.password.max-cost:16}")
+    private int maxCost;
+
+    @Value("${membership.password.rehash-tolerance:1}")
+    private int rehashTolerance;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+
+    private Timer waitTimer;
+
+    private Timer hashTimer;
+
+    private Counter rejected;
+
+    private Counter rehashed;
+
+    private int cost;
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        waitTimer = Timer.builder("membership.password.wait")
+                .description("Time a password task spent queued before a hashing thread picked it up")
+                .register(meterRegistry);
+        hashTimer = Timer.builder("membership.password.hash")
+                .description("Time spent computing a BCrypt hash")
+                .register(meterRegistry);
+        rejected = Counter.builder("membership.password.rejected")
+                .register(meterRegistry);
+        rehashed = Counter.builder("membership.password.rehashed")
+                .register(meterRegistry);
+        Gauge.builder("membership.password.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("membership.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+
+        cost = fixedCost > 0 ? fixedCost : calibrate();
+        Gauge.builder("membership.password.cost", this, PasswordHasher::getCost)
+                .register(meterRegistry);
+        log.info("Using BCrypt cost factor {}", cost);
+    }
+
+    /**
+     * Times a hash at the minimum cost and extrapolates, since each step of the cost factor doubles
+     * the work.
+     */
+    private int calibrate() {
+        String salt = BCrypt.gensalt(minCost);
+        BCrypt.hashpw("calibration", salt);
+
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long startedAt = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            fastest = Math.min(fastest, System.nanoTime() - startedAt);
+        }
+
+        long target = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        int calibrated = minCost;
+        while (calibrated < maxCost && fastest * 2 <= target) {
+            fastest *= 2;
+            calibrated++;
+        }
+        return calibrated;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    public String hash(String password) {
+        return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    public boolean matches(String password, String hashed) {
+        return submit(() -> BCrypt.checkpw(password, hashed));
+    }
+
+    /**
+     * Tells whether a stored hash was computed with a cost factor more than the tolerance below the
+     * current one, or above the maximum.
+     */
+    public boolean needsRehash(String hashed) {
+        int stored = BCrypt.log_rounds(hashed);
+        return stored < cost - rehashTolerance || stored > Math.max(maxCost, cost);
+    }
+
+    /**
+     * Hashes the password again at the current cost factor, to be called after it was verified.
+     */
+    public String rehash(String password) {
+        rehashed.increment();
+        return hash(password);
+    }
+
+    private <T> T submit(Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.call();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please retry later");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please retry later");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
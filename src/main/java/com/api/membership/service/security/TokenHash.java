@@ -0,0 +1,32 @@
+package com.api.membership.service.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Fixed-width form of an API token used as its lookup key: the first 16 bytes of the SHA-256 of the
+ * token. It matches {@code UNHEX(LEFT(SHA2(token, 256), 32))} in MySQL, which the migration uses to
+ * backfill existing rows.
+ */
+public final class TokenHash {
+
+    public static final int LENGTH = 16;
+
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private TokenHash() {
+    }
+
+    public static byte[] of(String token) {
+        byte[] digest = DIGESTS.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Arrays.copyOf(digest, LENGTH);
+    }
+}
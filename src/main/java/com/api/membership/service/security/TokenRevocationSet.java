@@ -0,0 +1,51 @@
+package com.api.membership.service.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory set of revoked signed tokens.
+ * <p>
+ * Each token is kept as a 64-bit fingerprint of its signature together with its expiry, so an entry
+ * costs a few dozen bytes no matter how long the token is. Entries whose token has expired anyway are
+ * purged as new revocations come in.
+ */
+@Component
+@ConditionalOnProperty(name = "membership.token.mode", havingValue = "signed")
+public class TokenRevocationSet {
+
+    private static final int PURGE_INTERVAL = 1024;
+
+    private final ConcurrentHashMap<Long, Long> revoked = new ConcurrentHashMap<>();
+
+    private final AtomicInteger revocationsSincePurge = new AtomicInteger();
+
+    public void revoke(byte[] signature, long expiredAt) {
+        revoked.put(fingerprint(signature), expiredAt);
+
+        if (revocationsSincePurge.incrementAndGet() >= PURGE_INTERVAL) {
+            revocationsSincePurge.set(0);
+            long now = System.currentTimeMillis();
+            revoked.values().removeIf(expiry -> expiry < now);
+        }
+    }
+
+    public boolean isRevoked(byte[] signature) {
+        return revoked.containsKey(fingerprint(signature));
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private long fingerprint(byte[] signature) {
+        long fingerprint = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            fingerprint = (fingerprint << 8) | (signature[i] & 0xff);
+        }
+        return fingerprint;
+    }
+}
@@ -0,0 +1,138 @@
+package com.api.membership.service.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Issues and verifies self-contained API tokens of the form
+ * {@code <keyId>.<base64url(username)>.<expiredAt>.<base64url(hmac)>}.
+ * <p>
+ * The HMAC-SHA256 signature covers everything before it. Tokens are signed with the active key but
+ * verified against every key in the ring, so a key can be rotated by adding the new one, switching
+ * {@code membership.token.active-key-id}, and removing the old one once its tokens have expired.
+ * <p>
+ * Only created in {@code signed} mode, which refuses to start without signing keys. Every instance
+ * has to verify the tokens the others sign, so there is no per-instance fallback key.
+ */
+@Component
+@ConditionalOnProperty(name = "membership.token.mode", havingValue = "signed")
+public class TokenSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    @Value("${membership.token.signing-keys:}")
+    private String signingKeys;
+
+    @Value("${membership.token.active-key-id:}")
+    private String activeKeyId;
+
+    private final Map<String, SecretKeySpec> keys = new LinkedHashMap<>();
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    public record SignedToken(String username, long expiredAt, byte[] signature) {
+    }
+
+    @PostConstruct
+    void init() {
+        for (String entry : signingKeys.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("Signing keys must be configured as <keyId>:<base64 secret>");
+            }
+            String keyId = trimmed.substring(0, separator);
+            byte[] secret = Base64.getDecoder().decode(trimmed.substring(separator + 1));
+            keys.put(keyId, new SecretKeySpec(secret, ALGORITHM));
+        }
+
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("Signed tokens need membership.token.signing-keys to be configured");
+        }
+        if (activeKeyId.isEmpty()) {
+            activeKeyId = keys.keySet().iterator().next();
+        }
+
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Active signing key " + activeKeyId + " is not in the key ring");
+        }
+    }
+
+    public String sign(String username, long expiredAt) {
+        String payload = activeKeyId + "." + ENCODER.encodeToString(username.getBytes(StandardCharsets.UTF_8))
+                + "." + expiredAt;
+        byte[] signature = mac(keys.get(activeKeyId), payload);
+        return payload + "." + ENCODER.encodeToString(signature);
+    }
+
+    /**
+     * Returns the verified token contents, or null when the token is malformed, signed with an
+     * unknown key or carries a wrong signature. Expiry is left to the caller.
+     */
+    @Nullable
+    public SignedToken verify(String token) {
+        int signatureStart = token.lastIndexOf('.');
+        int keyEnd = token.indexOf('.');
+        int usernameEnd = keyEnd < 0 ? -1 : token.indexOf('.', keyEnd + 1);
+        if (keyEnd <= 0 || usernameEnd < 0 || signatureStart <= usernameEnd) {
+            return null;
+        }
+
+        SecretKeySpec key = keys.get(token.substring(0, keyEnd));
+        if (key == null) {
+            return null;
+        }
+
+        try {
+            String payload = token.substring(0, signatureStart);
+            byte[] signature = DECODER.decode(token.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(signature, mac(key, payload))) {
+                return null;
+            }
+
+            String username = new String(DECODER.decode(token.substring(keyEnd + 1, usernameEnd)),
+                    StandardCharsets.UTF_8);
+            long expiredAt = Long.parseLong(token.substring(usernameEnd + 1, signatureStart));
+            return new SignedToken(username, expiredAt, signature);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] mac(SecretKeySpec key, String payload) {
+        Mac mac = macs.get();
+        try {
+            mac.init(key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,2 @@
+-- Lets the expired token sweeper find expired rows without scanning users
+CREATE INDEX idx_users_token_expired_at ON users (token_expired_at);
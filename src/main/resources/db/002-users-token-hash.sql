@@ -0,0 +1,11 @@
+-- Look tokens up by a 16 byte hash instead of the 36 character string
+ALTER TABLE users ADD COLUMN token_hash BINARY(16) NULL AFTER token;
+
+-- Backfill existing tokens, matching TokenHash.of(token)
+UPDATE users SET token_hash = UNHEX(LEFT(SHA2(token, 256), 32)) WHERE token IS NOT NULL;
+
+CREATE UNIQUE INDEX uk_users_token_hash ON users (token_hash);
+
+-- Once every instance resolves tokens through token_hash, the string index is no longer probed.
+-- Find its name with SHOW INDEX FROM users WHERE Column_name = 'token' and drop it:
+-- ALTER TABLE users DROP INDEX <index name>;
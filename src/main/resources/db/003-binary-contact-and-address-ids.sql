@@ -0,0 +1,33 @@
+-- Store contact and address ids as BINARY(16) instead of 36 character UUID strings.
+-- Existing ids are canonical UUID strings; UUID_TO_BIN keeps their byte order, which matches the
+-- order the application writes them in, so new time-ordered ids sort by creation time.
+ALTER TABLE contacts ADD COLUMN id_bin BINARY(16) NULL FIRST;
+UPDATE contacts SET id_bin = UUID_TO_BIN(id);
+
+ALTER TABLE addresses ADD COLUMN id_bin BINARY(16) NULL FIRST, ADD COLUMN contact_id_bin BINARY(16) NULL;
+UPDATE addresses SET id_bin = UUID_TO_BIN(id), contact_id_bin = UUID_TO_BIN(contact_id);
+
+-- The existing foreign key is named however the schema was first created, for example
+-- addresses_ibfk_1 when MySQL named it, so look its name up and drop it by that name.
+SET @fk_addresses_contacts = (SELECT constraint_name FROM information_schema.referential_constraints
+    WHERE constraint_schema = DATABASE() AND table_name = 'addresses' AND referenced_table_name = 'contacts'
+    LIMIT 1);
+SET @drop_fk_addresses_contacts = CONCAT('ALTER TABLE addresses DROP FOREIGN KEY `', @fk_addresses_contacts, '`');
+PREPARE drop_fk_addresses_contacts FROM @drop_fk_addresses_contacts;
+EXECUTE drop_fk_addresses_contacts;
+DEALLOCATE PREPARE drop_fk_addresses_contacts;
+
+ALTER TABLE contacts
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (id);
+
+ALTER TABLE addresses
+    DROP PRIMARY KEY,
+    DROP COLUMN id,
+    DROP COLUMN contact_id,
+    CHANGE COLUMN id_bin id BINARY(16) NOT NULL,
+    CHANGE COLUMN contact_id_bin contact_id BINARY(16) NOT NULL,
+    ADD PRIMARY KEY (id),
+    ADD CONSTRAINT fk_addresses_contacts FOREIGN KEY (contact_id) REFERENCES contacts (id);
@@ -0,0 +1,30 @@
+-- Trigram index for substring search on contact names, emails and phone numbers
+CREATE TABLE contact_ngrams (
+    username VARCHAR(100) NOT NULL,
+    field CHAR(1) NOT NULL,
+    ngram VARCHAR(3) NOT NULL,
+    contact_id BINARY(16) NOT NULL,
+    PRIMARY KEY (username, field, ngram, contact_id),
+    KEY idx_contact_ngrams_contact_id (contact_id),
+    CONSTRAINT fk_contact_ngrams_contacts FOREIGN KEY (contact_id) REFERENCES contacts (id) ON DELETE CASCADE
+);
+
+-- Index existing contacts. Values are at most 100 characters, so positions 1 to 98 cover every trigram;
+-- the case-insensitive collation makes LOWER here equivalent to the lower-casing done by the application.
+INSERT IGNORE INTO contact_ngrams (username, field, ngram, contact_id)
+WITH RECURSIVE positions (n) AS (
+    SELECT 1
+    UNION ALL
+    SELECT n + 1 FROM positions WHERE n < 98
+)
+SELECT c.username, 'n', LOWER(SUBSTRING(c.first_name, p.n, 3)), c.id
+FROM contacts c JOIN positions p ON p.n <= CHAR_LENGTH(c.first_name) - 2
+UNION ALL
+SELECT c.username, 'n', LOWER(SUBSTRING(c.last_name, p.n, 3)), c.id
+FROM contacts c JOIN positions p ON p.n <= CHAR_LENGTH(c.last_name) - 2
+UNION ALL
+SELECT c.username, 'e', LOWER(SUBSTRING(c.email, p.n, 3)), c.id
+FROM contacts c JOIN positions p ON p.n <= CHAR_LENGTH(c.email) - 2
+UNION ALL
+SELECT c.username, 'p', LOWER(SUBSTRING(c.phone, p.n, 3)), c.id
+FROM contacts c JOIN positions p ON p.n <= CHAR_LENGTH(c.phone) - 2;
@@ -0,0 +1,9 @@
+-- Digits-only phone numbers for prefix and suffix search; PhoneDigitsBackfill fills existing rows
+ALTER TABLE contacts
+    ADD COLUMN phone_digits VARCHAR(100) NULL,
+    ADD COLUMN phone_digits_reversed VARCHAR(100) NULL,
+    ADD INDEX idx_contacts_username_phone_digits (username, phone_digits),
+    ADD INDEX idx_contacts_username_phone_digits_reversed (username, phone_digits_reversed);
+
+-- Phone numbers are no longer searched through trigrams
+DELETE FROM contact_ngrams WHERE field = 'p';
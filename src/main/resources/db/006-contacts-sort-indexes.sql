@@ -0,0 +1,15 @@
+-- Creation time in epoch milliseconds, for sorting contacts by when they were added
+ALTER TABLE contacts ADD COLUMN created_at BIGINT NOT NULL DEFAULT 0;
+
+-- Time-ordered (version 7) ids carry their creation time in the first 48 bits. Contacts created
+-- before ids were time ordered keep 0 and sort first, by id.
+UPDATE contacts
+SET created_at = CONV(HEX(LEFT(id, 6)), 16, 10)
+WHERE ASCII(SUBSTRING(id, 7, 1)) >> 4 = 7;
+
+-- One index per sort field, ending in the primary key so ties and keyset cursors follow index order
+ALTER TABLE contacts
+    ADD INDEX idx_contacts_username_first_name (username, first_name, id),
+    ADD INDEX idx_contacts_username_last_name (username, last_name, id),
+    ADD INDEX idx_contacts_username_email (username, email, id),
+    ADD INDEX idx_contacts_username_created_at (username, created_at, id);
@@ -0,0 +1,5 @@
+-- Stamped by the primary and read back from each replica to measure replication lag
+CREATE TABLE replica_heartbeat (
+    id TINYINT NOT NULL PRIMARY KEY,
+    beat_at BIGINT NOT NULL
+);
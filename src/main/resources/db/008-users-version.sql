@@ -0,0 +1,3 @@
+-- Optimistic lock for User, so a write based on a stale copy of the row fails instead of
+-- overwriting newer columns
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
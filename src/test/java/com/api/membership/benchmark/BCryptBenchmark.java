@@ -0,0 +1,71 @@
+package com.api.membership.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.api.membership.service.security.BCrypt;
+
+/**
+ * Measures {@link BCrypt#hashpw(String, String)} and {@link BCrypt#checkpw(String, String)} at the cost
+ * factors we deploy with. Run {@link #main(String[])} from the test classpath, e.g.
+ * {@code mvn test-compile exec:java -Dexec.mainClass=com.api.membership.benchmark.BCryptBenchmark -Dexec.classpathScope=test}.
+ * The GC profiler reports bytes allocated per operation as {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BCryptBenchmark {
+
+    @Param({ "10", "11", "12" })
+    private int cost;
+
+    private String password;
+
+    private String salt;
+
+    private String hashed;
+
+    @Setup
+    public void setUp() {
+        password = "test1234";
+        salt = BCrypt.gensalt(cost);
+        hashed = BCrypt.hashpw(password, salt);
+    }
+
+    @Benchmark
+    public String hashpw() {
+        return BCrypt.hashpw(password, salt);
+    }
+
+    @Benchmark
+    public boolean checkpw() {
+        return BCrypt.checkpw(password, hashed);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BCryptBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
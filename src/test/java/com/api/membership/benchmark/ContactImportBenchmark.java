@@ -0,0 +1,129 @@
+package com.api.membership.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.api.membership.model.User;
+import com.api.membership.model.request.CreateContactRequest;
+import com.api.membership.model.response.ContactResponse;
+import com.api.membership.model.response.ImportContactResponse;
+import com.api.membership.service.ContactService;
+import com.api.membership.service.bulk.ContactImporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares contacts created per second through {@link ContactService#create}, one transaction per
+ * contact as {@code POST /api/contacts} does, with {@link ContactImporter} reading the same contacts
+ * from an NDJSON body. Both score in contacts per second. Contacts are removed after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ContactImportBenchmark {
+
+    private static final String USERNAME = "bench-import";
+
+    private static final int CONTACTS = 1000;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ContactService contactService;
+
+    private ContactImporter contactImporter;
+
+    private User user;
+
+    private List<CreateContactRequest> requests;
+
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) throws IOException {
+        jdbcTemplate = application.getBean(JdbcTemplate.class);
+        contactService = application.getBean(ContactService.class);
+        contactImporter = application.getBean(ContactImporter.class);
+        ObjectMapper objectMapper = application.getBean(ObjectMapper.class);
+
+        deleteContacts();
+        jdbcTemplate.update("delete from users where username = ?", USERNAME);
+        jdbcTemplate.update("insert into users (username, password, name) values (?, ?, ?)",
+                USERNAME, "-", "Benchmark");
+        user = new User();
+        user.setUsername(USERNAME);
+
+        requests = new ArrayList<>(CONTACTS);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < CONTACTS; i++) {
+            CreateContactRequest request = CreateContactRequest.builder()
+                    .firstName("Contact " + i)
+                    .lastName("Benchmark")
+                    .email("contact" + i + "@example.com")
+                    .phone("0812" + (10_000_000 + i))
+                    .build();
+            requests.add(request);
+            ndjson.append(objectMapper.writeValueAsString(request)).append('\n');
+        }
+        body = ndjson.toString().getBytes();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteContacts() {
+        jdbcTemplate.update("delete from contacts where username = ?", USERNAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        deleteContacts();
+        jdbcTemplate.update("delete from users where username = ?", USERNAME);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONTACTS)
+    public int createOneByOne() {
+        int created = 0;
+        for (CreateContactRequest request : requests) {
+            ContactResponse response = contactService.create(user, request);
+            created += response.getId() == null ? 0 : 1;
+        }
+        return created;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONTACTS)
+    public int importBatched() throws IOException {
+        ImportContactResponse response = contactImporter.importContacts(user, new ByteArrayInputStream(body));
+        return response.getImported();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ContactImportBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
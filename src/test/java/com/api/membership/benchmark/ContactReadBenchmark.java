@@ -0,0 +1,207 @@
+package com.api.membership.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.api.membership.model.Address;
+import com.api.membership.model.Contact;
+import com.api.membership.model.User;
+import com.api.membership.model.response.AddressResponse;
+import com.api.membership.model.response.ContactResponse;
+import com.api.membership.repository.AddressRepository;
+import com.api.membership.repository.ContactRepository;
+import com.api.membership.service.id.IdGenerator;
+
+/**
+ * Compares reading contacts and addresses as managed entities, then copying them into responses,
+ * with constructor projections straight into the responses. Every read runs in a read-only
+ * transaction like the services do. The GC profiler reports bytes allocated per read as
+ * {@code gc.alloc.rate.norm}.
+ * <p>
+ * Needs the local MySQL the tests use. Run {@link #main} from the IDE, or from the command line:
+ *
+ * <pre>
+ * mvn -B test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ContactReadBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContactReadBenchmark {
+
+    private static final String USERNAME = "bench-read";
+
+    private static final int CONTACTS = 1000;
+
+    private static final int ADDRESSES = 3;
+
+    private static final Pageable PAGE = PageRequest.of(0, 50, Sort.by("id"));
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ContactRepository contactRepository;
+
+    private AddressRepository addressRepository;
+
+    private TransactionTemplate readOnly;
+
+    private User user;
+
+    private Specification<Contact> byUser;
+
+    private final List<UUID> contactIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        jdbcTemplate = application.getBean(JdbcTemplate.class);
+        contactRepository = application.getBean(ContactRepository.class);
+        addressRepository = application.getBean(AddressRepository.class);
+        IdGenerator idGenerator = application.getBean(IdGenerator.class);
+        readOnly = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        tearDown();
+        jdbcTemplate.update("insert into users (username, password, name) values (?, ?, ?)",
+                USERNAME, "-", "Benchmark");
+        user = new User();
+        user.setUsername(USERNAME);
+        byUser = (root, query, builder) -> builder.equal(root.get("user"), user);
+
+        List<Object[]> contacts = new ArrayList<>();
+        List<Object[]> addresses = new ArrayList<>();
+        for (int i = 0; i < CONTACTS; i++) {
+            UUID contactId = idGenerator.generate();
+            contactIds.add(contactId);
+            contacts.add(new Object[] { IdGenerator.toBytes(contactId), USERNAME, "Contact " + i, "Benchmark",
+                    "contact" + i + "@example.com", "0812" + i });
+            for (int j = 0; j < ADDRESSES; j++) {
+                UUID addressId = idGenerator.generate();
+                addresses.add(new Object[] { IdGenerator.toBytes(addressId), IdGenerator.toBytes(contactId),
+                        "Street " + j, "Jakarta", "DKI Jakarta", "Indonesia", "10110" });
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into contacts (id, username, first_name, last_name, email, phone) "
+                + "values (?, ?, ?, ?, ?, ?)", contacts);
+        jdbcTemplate.batchUpdate("insert into addresses (id, contact_id, street, city, province, country, postal_code) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", addresses);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("delete from addresses where contact_id in (select id from contacts where username = ?)",
+                USERNAME);
+        jdbcTemplate.update("delete from contacts where username = ?", USERNAME);
+        jdbcTemplate.update("delete from users where username = ?", USERNAME);
+    }
+
+    private UUID randomContact() {
+        return contactIds.get(ThreadLocalRandom.current().nextInt(contactIds.size()));
+    }
+
+    @Benchmark
+    public ContactResponse getEntity() {
+        return readOnly.execute(status -> contactRepository.findFirstByUserAndId(user, randomContact())
+                .map(ContactReadBenchmark::toContactResponse)
+                .orElseThrow());
+    }
+
+    @Benchmark
+    public ContactResponse getProjection() {
+        return readOnly.execute(status -> contactRepository.findResponseByUserAndId(user, randomContact())
+                .orElseThrow());
+    }
+
+    @Benchmark
+    public Page<ContactResponse> searchEntity() {
+        return readOnly.execute(status -> contactRepository.findAll(byUser, PAGE)
+                .map(ContactReadBenchmark::toContactResponse));
+    }
+
+    @Benchmark
+    public Page<ContactResponse> searchProjection() {
+        return readOnly.execute(status -> contactRepository.findPage(byUser, PAGE));
+    }
+
+    @Benchmark
+    public List<AddressResponse> listAddressesEntity() {
+        return readOnly.execute(status -> {
+            Contact contact = contactRepository.findFirstByUserAndId(user, randomContact()).orElseThrow();
+            return addressRepository.findAllByContact(contact).stream()
+                    .map(ContactReadBenchmark::toAddressResponse)
+                    .toList();
+        });
+    }
+
+    @Benchmark
+    public List<AddressResponse> listAddressesProjection() {
+        return readOnly.execute(status -> {
+            UUID contactId = randomContact();
+            if (!contactRepository.existsByUserAndId(user, contactId)) {
+                throw new IllegalStateException();
+            }
+            return addressRepository.findAllResponsesByContactId(contactId);
+        });
+    }
+
+    private static ContactResponse toContactResponse(Contact contact) {
+        return ContactResponse.builder()
+                .id(contact.getId().toString())
+                .firstName(contact.getFirstName())
+                .lastName(contact.getLastName())
+                .email(contact.getEmail())
+                .phone(contact.getPhone())
+                .build();
+    }
+
+    private static AddressResponse toAddressResponse(Address address) {
+        return AddressResponse.builder()
+                .id(address.getId().toString())
+                .street(address.getStreet())
+                .city(address.getCity())
+                .province(address.getProvince())
+                .country(address.getCountry())
+                .postalCode(address.getPostalCode())
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ContactReadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,136 @@
+package com.api.membership.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.api.membership.model.Contact;
+import com.api.membership.model.User;
+import com.api.membership.model.request.SearchContactRequest;
+import com.api.membership.model.response.ContactResponse;
+import com.api.membership.service.ContactService;
+import com.api.membership.service.id.IdGenerator;
+import com.api.membership.service.search.ContactNgramIndex;
+
+/**
+ * Measures {@link ContactService#search} latency for one user as their contact count grows, against
+ * the plain leading-wildcard {@code like} query it used to run. Contacts are inserted for a
+ * dedicated benchmark user and removed again after the trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ContactSearchBenchmark {
+
+    private static final String USERNAME = "bench-search";
+
+    private static final String[] NAMES = { "Budi", "Siti", "Andi", "Dewi", "Agus", "Rina", "Joko", "Putri",
+            "Bambang", "Wulan", "Hendra", "Lestari", "Yusuf", "Maya", "Rizky", "Indah" };
+
+    @Param({ "1000", "10000", "100000" })
+    private int contacts;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ContactService contactService;
+
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        jdbcTemplate = application.getBean(JdbcTemplate.class);
+        contactService = application.getBean(ContactService.class);
+        ContactNgramIndex contactNgramIndex = application.getBean(ContactNgramIndex.class);
+        IdGenerator idGenerator = application.getBean(IdGenerator.class);
+
+        tearDown();
+        jdbcTemplate.update("insert into users (username, password, name) values (?, ?, ?)",
+                USERNAME, "-", "Benchmark");
+        user = new User();
+        user.setUsername(USERNAME);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Object[]> rows = new ArrayList<>();
+        List<Contact> batch = new ArrayList<>();
+        for (int i = 0; i < contacts; i++) {
+            Contact contact = new Contact();
+            contact.setId(idGenerator.generate());
+            contact.setUser(user);
+            contact.setFirstName(NAMES[random.nextInt(NAMES.length)] + " " + i);
+            contact.setLastName(NAMES[random.nextInt(NAMES.length)] + "wati");
+            contact.setEmail("contact" + i + "@example.com");
+            contact.setPhone("08" + (1_000_000_000L + random.nextLong(9_000_000_000L)));
+            rows.add(new Object[] { IdGenerator.toBytes(contact.getId()), USERNAME, contact.getFirstName(),
+                    contact.getLastName(), contact.getEmail(), contact.getPhone() });
+            batch.add(contact);
+
+            if (rows.size() == 1000 || i == contacts - 1) {
+                jdbcTemplate.batchUpdate("insert into contacts (id, username, first_name, last_name, email, phone) "
+                        + "values (?, ?, ?, ?, ?, ?)", rows);
+                batch.forEach(contactNgramIndex::index);
+                rows.clear();
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("analyze table contacts, contact_ngrams");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("delete from addresses where contact_id in (select id from contacts where username = ?)",
+                USERNAME);
+        jdbcTemplate.update("delete from contacts where username = ?", USERNAME);
+        jdbcTemplate.update("delete from users where username = ?", USERNAME);
+    }
+
+    @Benchmark
+    public Slice<ContactResponse> searchIndexed() {
+        return contactService.search(user, SearchContactRequest.builder()
+                .name(term())
+                .page(0)
+                .size(10)
+                .build());
+    }
+
+    @Benchmark
+    public List<String> searchLike() {
+        String pattern = "%" + term() + "%";
+        return jdbcTemplate.queryForList("select first_name from contacts where username = ? "
+                + "and (first_name like ? or last_name like ?) limit 10", String.class, USERNAME, pattern, pattern);
+    }
+
+    private String term() {
+        return NAMES[ThreadLocalRandom.current().nextInt(NAMES.length)] + " " + ThreadLocalRandom.current().nextInt(contacts);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ContactSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
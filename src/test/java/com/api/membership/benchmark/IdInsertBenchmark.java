@@ -0,0 +1,95 @@
+package com.api.membership.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.api.membership.service.id.IdGenerator;
+import com.api.membership.service.id.TimeOrderedIdGenerator;
+
+/**
+ * Compares insert throughput of random UUID strings in a VARCHAR primary key, as contacts were
+ * created before, with time-ordered ids in a BINARY(16) key. Both scratch tables carry a secondary
+ * index like {@code contacts.username}, which stores a copy of the primary key in every entry.
+ * Generation alone is measured too, to show the cost of the shared {@code SecureRandom}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class IdInsertBenchmark {
+
+    private final IdGenerator timeOrdered = new TimeOrderedIdGenerator();
+
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        jdbcTemplate = application.getBean(JdbcTemplate.class);
+        dropTables();
+        jdbcTemplate.execute("create table bench_id_varchar (id varchar(255) primary key, "
+                + "username varchar(100) not null, first_name varchar(100) not null, key idx_username (username))");
+        jdbcTemplate.execute("create table bench_id_binary (id binary(16) primary key, "
+                + "username varchar(100) not null, first_name varchar(100) not null, key idx_username (username))");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dropTables();
+    }
+
+    private void dropTables() {
+        jdbcTemplate.execute("drop table if exists bench_id_varchar");
+        jdbcTemplate.execute("drop table if exists bench_id_binary");
+    }
+
+    @Benchmark
+    public int insertRandomString() {
+        return jdbcTemplate.update("insert into bench_id_varchar values (?, ?, ?)",
+                UUID.randomUUID().toString(), "bench", "contact");
+    }
+
+    @Benchmark
+    public int insertTimeOrderedBinary() {
+        return jdbcTemplate.update("insert into bench_id_binary values (?, ?, ?)",
+                IdGenerator.toBytes(timeOrdered.generate()), "bench", "contact");
+    }
+
+    @Benchmark
+    public UUID generateRandom() {
+        return UUID.randomUUID();
+    }
+
+    @Benchmark
+    public UUID generateTimeOrdered() {
+        return timeOrdered.generate();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(IdInsertBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.api.membership.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.api.membership.service.security.TokenHash;
+
+/**
+ * Compares a unique index on the 36 character token string with one on its 16 byte hash. Both
+ * layouts are built in scratch tables filled with the same tokens, and the on-disk size of each
+ * index is printed after setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TokenLookupBenchmark {
+
+    @Param({ "100000", "1000000" })
+    private int rows;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private String[] tokens;
+
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        jdbcTemplate = application.getBean(JdbcTemplate.class);
+        jdbcTemplate.execute("drop table if exists bench_token_string");
+        jdbcTemplate.execute("drop table if exists bench_token_hash");
+        jdbcTemplate.execute("create table bench_token_string (username varchar(100) primary key, "
+                + "token varchar(255), unique key uk_token (token))");
+        jdbcTemplate.execute("create table bench_token_hash (username varchar(100) primary key, "
+                + "token_hash binary(16), unique key uk_token_hash (token_hash))");
+
+        tokens = new String[rows];
+        List<Object[]> stringRows = new ArrayList<>();
+        List<Object[]> hashRows = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            tokens[i] = UUID.randomUUID().toString();
+            stringRows.add(new Object[] { "user" + i, tokens[i] });
+            hashRows.add(new Object[] { "user" + i, TokenHash.of(tokens[i]) });
+            if (stringRows.size() == 5000 || i == rows - 1) {
+                jdbcTemplate.batchUpdate("insert into bench_token_string values (?, ?)", stringRows);
+                jdbcTemplate.batchUpdate("insert into bench_token_hash values (?, ?)", hashRows);
+                stringRows.clear();
+                hashRows.clear();
+            }
+        }
+
+        jdbcTemplate.execute("analyze table bench_token_string, bench_token_hash");
+        for (Map<String, Object> size : jdbcTemplate.queryForList("select table_name, index_name, "
+                + "stat_value * @@innodb_page_size as bytes from mysql.innodb_index_stats "
+                + "where table_name like 'bench_token_%' and stat_name = 'size'")) {
+            System.out.println(size);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("drop table if exists bench_token_string");
+        jdbcTemplate.execute("drop table if exists bench_token_hash");
+    }
+
+    @Benchmark
+    public String lookupByString() {
+        String token = tokens[ThreadLocalRandom.current().nextInt(rows)];
+        return jdbcTemplate.queryForObject("select username from bench_token_string where token = ?",
+                String.class, token);
+    }
+
+    @Benchmark
+    public String lookupByHash() {
+        String token = tokens[ThreadLocalRandom.current().nextInt(rows)];
+        return jdbcTemplate.queryForObject("select username from bench_token_hash where token_hash = ?",
+                String.class, TokenHash.of(token));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenLookupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
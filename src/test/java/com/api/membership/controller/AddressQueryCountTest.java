@@ -0,0 +1,307 @@
+package com.api.membership.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.api.membership.model.Address;
+import com.api.membership.model.Contact;
+import com.api.membership.model.User;
+import com.api.membership.model.request.CreateAddressRequest;
+import com.api.membership.model.request.UpdateAddressRequest;
+import com.api.membership.repository.AddressRepository;
+import com.api.membership.repository.ContactRepository;
+import com.api.membership.repository.UserRepository;
+import com.api.membership.service.TokenService;
+import com.api.membership.service.cache.ContactSearchCache;
+import com.api.membership.service.cache.TokenCache;
+import com.api.membership.service.security.BCrypt;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Counts the statements each address endpoint sends through Hibernate. The token is resolved once
+ * before counting, so only the address work itself is measured.
+ */
+@SpringBootTest(properties = {
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn" })
+@AutoConfigureMockMvc
+public class AddressQueryCountTest {
+
+        private static final UUID CONTACT_ID = UUID.fromString("00000000-0000-7000-8000-000000000001");
+
+        private static final UUID ADDRESS_ID = UUID.fromString("00000000-0000-7000-8000-000000000002");
+
+        private static final UUID OTHER_CONTACT_ID = UUID.fromString("00000000-0000-7000-8000-000000000003");
+
+        private static final UUID OTHER_ADDRESS_ID = UUID.fromString("00000000-0000-7000-8000-000000000004");
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private ContactRepository contactRepository;
+
+        @Autowired
+        private AddressRepository addressRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private TokenCache tokenCache;
+
+        @Autowired
+        private TokenService tokenService;
+
+        @Autowired
+        private ContactSearchCache contactSearchCache;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        private Statistics statistics;
+
+        @BeforeEach
+        void setUp() {
+                tokenCache.clear();
+                addressRepository.deleteAll();
+                contactRepository.deleteAll();
+                userRepository.deleteAll();
+
+                User user = new User();
+                user.setUsername("test");
+                user.setPassword(BCrypt.hashpw("test1234", BCrypt.gensalt()));
+                user.setName("Usertest");
+                user.setToken("test");
+                user.setTokenExpiredAt(System.currentTimeMillis() + 100000000000L);
+                userRepository.save(user);
+
+                Contact contact = new Contact();
+                contact.setId(CONTACT_ID);
+                contact.setUser(user);
+                contact.setFirstName("tes");
+                contact.setLastName("salah");
+                contact.setEmail("salah@co.a");
+                contact.setPhone("145622");
+                contactRepository.save(contact);
+
+                Address address = new Address();
+                address.setId(ADDRESS_ID);
+                address.setContact(contact);
+                address.setStreet("jalan");
+                address.setCity("gotham");
+                address.setProvince("batman");
+                address.setCountry("DC");
+                address.setPostalCode("123123");
+                addressRepository.save(address);
+
+                tokenService.resolve("test");
+                statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+                statistics.clear();
+        }
+
+        @Test
+        void getAddressRunsOneStatement() throws Exception {
+                mockMvc.perform(
+                                get("/api/contacts/" + CONTACT_ID + "/addresses/" + ADDRESS_ID)
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        @Test
+        void updateAddressRunsOneStatement() throws Exception {
+                UpdateAddressRequest request = new UpdateAddressRequest();
+                request.setStreet("test");
+                request.setCity("test1");
+                request.setProvince("test2");
+                request.setCountry("test3");
+                request.setPostalCode("123456");
+
+                mockMvc.perform(
+                                put("/api/contacts/" + CONTACT_ID + "/addresses/" + ADDRESS_ID)
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(request))
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        @Test
+        void deleteAddressRunsOneStatement() throws Exception {
+                mockMvc.perform(
+                                delete("/api/contacts/" + CONTACT_ID + "/addresses/" + ADDRESS_ID)
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        @Test
+        void listAddressRunsOneStatement() throws Exception {
+                mockMvc.perform(
+                                get("/api/contacts/" + CONTACT_ID + "/addresses")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                assertEquals(1, statistics.getPrepareStatementCount());
+        }
+
+        @Test
+        void createAddressLoadsOnlyTheContact() throws Exception {
+                CreateAddressRequest request = new CreateAddressRequest();
+                request.setStreet("test");
+                request.setCity("test1");
+                request.setProvince("test2");
+                request.setCountry("test3");
+                request.setPostalCode("123456");
+
+                mockMvc.perform(
+                                post("/api/contacts/" + CONTACT_ID + "/addresses")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(request))
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                // The owning user stays an uninitialized proxy: select contact, merge lookup, insert
+                assertEquals(1, statistics.getEntityLoadCount());
+                assertEquals(3, statistics.getPrepareStatementCount());
+        }
+
+        @Test
+        void addressOfAnotherUsersContactIsNotFound() throws Exception {
+                User other = new User();
+                other.setUsername("other");
+                other.setPassword(BCrypt.hashpw("other1234", BCrypt.gensalt()));
+                other.setName("Userother");
+                userRepository.save(other);
+
+                Contact contact = new Contact();
+                contact.setId(OTHER_CONTACT_ID);
+                contact.setUser(other);
+                contact.setFirstName("lain");
+                contactRepository.save(contact);
+
+                Address address = new Address();
+                address.setId(OTHER_ADDRESS_ID);
+                address.setContact(contact);
+                address.setStreet("jalan lain");
+                address.setCity("metropolis");
+                address.setProvince("superman");
+                address.setCountry("DC");
+                address.setPostalCode("456456");
+                addressRepository.save(address);
+
+                UpdateAddressRequest request = new UpdateAddressRequest();
+                request.setStreet("test");
+                request.setCity("test1");
+                request.setProvince("test2");
+                request.setCountry("test3");
+                request.setPostalCode("123456");
+                String body = objectMapper.writeValueAsString(request);
+
+                // Through the other user's contact, and through one of our own contacts
+                for (UUID contactId : new UUID[] { OTHER_CONTACT_ID, CONTACT_ID }) {
+                        String path = "/api/contacts/" + contactId + "/addresses/" + OTHER_ADDRESS_ID;
+
+                        mockMvc.perform(
+                                        get(path)
+                                                        .accept(MediaType.APPLICATION_JSON)
+                                                        .header("X-API-TOKEN", "test"))
+                                        .andExpectAll(
+                                                        status().isNotFound());
+
+                        mockMvc.perform(
+                                        put(path)
+                                                        .accept(MediaType.APPLICATION_JSON)
+                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                        .content(body)
+                                                        .header("X-API-TOKEN", "test"))
+                                        .andExpectAll(
+                                                        status().isNotFound());
+
+                        mockMvc.perform(
+                                        delete(path)
+                                                        .accept(MediaType.APPLICATION_JSON)
+                                                        .header("X-API-TOKEN", "test"))
+                                        .andExpectAll(
+                                                        status().isNotFound());
+                }
+
+                mockMvc.perform(
+                                get("/api/contacts/" + OTHER_CONTACT_ID + "/addresses")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isNotFound());
+
+                Address stored = addressRepository.findById(OTHER_ADDRESS_ID).orElseThrow();
+                assertEquals("jalan lain", stored.getStreet());
+                assertEquals("metropolis", stored.getCity());
+                assertEquals("superman", stored.getProvince());
+                assertEquals("DC", stored.getCountry());
+                assertEquals("456456", stored.getPostalCode());
+        }
+
+        @Test
+        void searchWithAddressesRunsOneStatementPerPage() throws Exception {
+                User user = userRepository.findById("test").orElseThrow();
+                for (int i = 0; i < 5; i++) {
+                        Contact contact = new Contact();
+                        contact.setId(UUID.randomUUID());
+                        contact.setUser(user);
+                        contact.setFirstName("tes " + i);
+                        contactRepository.save(contact);
+
+                        Address address = new Address();
+                        address.setId(UUID.randomUUID());
+                        address.setContact(contact);
+                        address.setCountry("DC");
+                        addressRepository.save(address);
+                }
+                contactSearchCache.clear();
+                statistics.clear();
+
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("addresses", "true")
+                                                .queryParam("total", "none")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                // One statement for the page of contacts and one for all of their addresses
+                assertEquals(2, statistics.getPrepareStatementCount());
+        }
+}
@@ -14,17 +14,22 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import com.api.membership.model.Address;
 import com.api.membership.model.Contact;
 import com.api.membership.model.User;
+import com.api.membership.model.request.BulkContactRequest;
 import com.api.membership.model.request.CreateAddressRequest;
 import com.api.membership.model.request.UpdateAddressRequest;
 import com.api.membership.model.response.AddressResponse;
+import com.api.membership.model.response.BulkContactResponse;
+import com.api.membership.model.response.ContactResponse;
 import com.api.membership.model.response.WebResponse;
 import com.api.membership.repository.AddressRepository;
 import com.api.membership.repository.ContactRepository;
 import com.api.membership.repository.UserRepository;
+import com.api.membership.service.cache.TokenCache;
 import com.api.membership.service.security.BCrypt;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -33,6 +38,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @AutoConfigureMockMvc
 public class AddressTest {
 
+        private static final UUID CONTACT_ID = UUID.fromString("00000000-0000-7000-8000-000000000001");
+
+        private static final UUID ADDRESS_ID = UUID.fromString("00000000-0000-7000-8000-000000000002");
+
         @Autowired
         private MockMvc mockMvc;
 
@@ -48,8 +57,12 @@ public class AddressTest {
         @Autowired
         private ObjectMapper objectMapper;
 
+        @Autowired
+        private TokenCache tokenCache;
+
         @BeforeEach
         void setUp() {
+                tokenCache.clear();
                 addressRepository.deleteAll();
                 contactRepository.deleteAll();
                 userRepository.deleteAll();
@@ -63,7 +76,7 @@ public class AddressTest {
                 userRepository.save(user);
 
                 Contact contact = new Contact();
-                contact.setId("test");
+                contact.setId(CONTACT_ID);
                 contact.setUser(user);
                 contact.setFirstName("tes");
                 contact.setLastName("salah");
@@ -78,7 +91,7 @@ public class AddressTest {
                 request.setCountry("");
 
                 mockMvc.perform(
-                                post("/api/contacts/test/addresses")
+                                post("/api/contacts/" + CONTACT_ID + "/addresses")
                                                 .accept(MediaType.APPLICATION_JSON)
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .content(objectMapper.writeValueAsString(request))
@@ -105,7 +118,7 @@ public class AddressTest {
                 request.setPostalCode("123456");
 
                 mockMvc.perform(
-                                post("/api/contacts/test/addresses")
+                                post("/api/contacts/" + CONTACT_ID + "/addresses")
                                                 .accept(MediaType.APPLICATION_JSON)
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .content(objectMapper.writeValueAsString(request))
@@ -125,7 +138,7 @@ public class AddressTest {
                                         assertEquals(request.getCountry(), response.getData().getCountry());
                                         assertEquals(request.getPostalCode(), response.getData().getPostalCode());
 
-                                        assertTrue(addressRepository.existsById(response.getData().getId()));
+                                        assertTrue(addressRepository.existsById(UUID.fromString(response.getData().getId())));
                                 });
         }
 
@@ -133,7 +146,7 @@ public class AddressTest {
         void getAddressNotFound() throws Exception {
 
                 mockMvc.perform(
-                                get("/api/contacts/test/addresses/test")
+                                get("/api/contacts/" + CONTACT_ID + "/addresses/" + ADDRESS_ID)
                                                 .accept(MediaType.APPLICATION_JSON)
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .header("X-API-TOKEN", "test"))
@@ -151,10 +164,10 @@ public class AddressTest {
 
         @Test
         void getAddressSuccess() throws Exception {
-                Contact contact = contactRepository.findById("test").orElseThrow();
+                Contact contact = contactRepository.findById(CONTACT_ID).orElseThrow();
 
                 Address address = new Address();
-                address.setId("test");
+                address.setId(ADDRESS_ID);
                 address.setContact(contact);
                 address.setStreet("jalan");
                 address.setCity("gotham");
@@ -164,7 +177,7 @@ public class AddressTest {
                 addressRepository.save(address);
 
                 mockMvc.perform(
-                                get("/api/contacts/test/addresses/test")
+                                get("/api/contacts/" + CONTACT_ID + "/addresses/" + ADDRESS_ID)
                                                 .accept(MediaType.APPLICATION_JSON)
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .header("X-API-TOKEN", "test"))
@@ -177,7 +190,7 @@ public class AddressTest {
 
                                                         });
                                         assertNull(response.getErrors());
-                                        assertEquals(address.getId(), response.getData().getId());
+                                        assertEquals(address.getId().toString(), response.getData().getId());
                                         assertEquals(address.getStreet(), response.getData().getStreet());
                                         assertEquals(address.getCity(), response.getData().getCity());
                                         assertEquals(address.getProvince(), response.getData().getProvince());
@@ -193,7 +206,7 @@ public class AddressTest {
                 request.setCountry("");
 
                 mockMvc.perform(
-                                put("/api/contacts/test/addresses/test")
+                                put("/api/contacts/" + CONTACT_ID + "/addresses/" + ADDRESS_ID)
                                                 .accept(MediaType.APPLICATION_JSON)
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .content(objectMapper.writeValueAsString(request))
@@ -212,10 +225,10 @@ public class AddressTest {
 
         @Test
         void updateAddressSuccess() throws Exception {
-                Contact contact = contactRepository.findById("test").orElseThrow();
+                Contact contact = contactRepository.findById(CONTACT_ID).orElseThrow();
 
                 Address address = new Address();
-                address.setId("test");
+                address.setId(ADDRESS_ID);
                 address.setContact(contact);
                 address.setStreet("jalan");
                 address.setCity("gotham");
@@ -232,7 +245,7 @@ public class AddressTest {
                 request.setPostalCode("123456");
 
                 mockMvc.perform(
-                                put("/api/contacts/test/addresses/test")
+                                put("/api/contacts/" + CONTACT_ID + "/addresses/" + ADDRESS_ID)
                                                 .accept(MediaType.APPLICATION_JSON)
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .content(objectMapper.writeValueAsString(request))
@@ -252,7 +265,7 @@ public class AddressTest {
                                         assertEquals(request.getCountry(), response.getData().getCountry());
                                         assertEquals(request.getPostalCode(), response.getData().getPostalCode());
 
-                                        assertTrue(addressRepository.existsById(response.getData().getId()));
+                                        assertTrue(addressRepository.existsById(UUID.fromString(response.getData().getId())));
                                 });
         }
 
@@ -260,7 +273,7 @@ public class AddressTest {
         void deleteAddressNotFound() throws Exception {
 
                 mockMvc.perform(
-                                delete("/api/contacts/test/addresses/test")
+                                delete("/api/contacts/" + CONTACT_ID + "/addresses/" + ADDRESS_ID)
                                                 .accept(MediaType.APPLICATION_JSON)
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .header("X-API-TOKEN", "test"))
@@ -278,10 +291,10 @@ public class AddressTest {
 
         @Test
         void deleteAddressSuccess() throws Exception {
-                Contact contact = contactRepository.findById("test").orElseThrow();
+                Contact contact = contactRepository.findById(CONTACT_ID).orElseThrow();
 
                 Address address = new Address();
-                address.setId("test");
+                address.setId(ADDRESS_ID);
                 address.setContact(contact);
                 address.setStreet("jalan");
                 address.setCity("gotham");
@@ -291,7 +304,7 @@ public class AddressTest {
                 addressRepository.save(address);
 
                 mockMvc.perform(
-                                delete("/api/contacts/test/addresses/test")
+                                delete("/api/contacts/" + CONTACT_ID + "/addresses/" + ADDRESS_ID)
                                                 .accept(MediaType.APPLICATION_JSON)
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .header("X-API-TOKEN", "test"))
@@ -306,7 +319,7 @@ public class AddressTest {
                                         assertNull(response.getErrors());
                                         assertEquals("OK", response.getData());
 
-                                        assertFalse(addressRepository.existsById("test"));
+                                        assertFalse(addressRepository.existsById(ADDRESS_ID));
                                 });
         }
 
@@ -332,11 +345,11 @@ public class AddressTest {
 
         @Test
         void listAddressSuccess() throws Exception {
-                Contact contact = contactRepository.findById("test").orElseThrow();
+                Contact contact = contactRepository.findById(CONTACT_ID).orElseThrow();
 
                 for (int i = 0; i < 5; i++) {
                         Address address = new Address();
-                        address.setId("test-" + i);
+                        address.setId(UUID.randomUUID());
                         address.setContact(contact);
                         address.setStreet("jalan");
                         address.setCity("gotham");
@@ -347,7 +360,7 @@ public class AddressTest {
                 }
 
                 mockMvc.perform(
-                                get("/api/contacts/test/addresses")
+                                get("/api/contacts/" + CONTACT_ID + "/addresses")
                                                 .accept(MediaType.APPLICATION_JSON)
                                                 .contentType(MediaType.APPLICATION_JSON)
                                                 .header("X-API-TOKEN", "test"))
@@ -364,4 +377,176 @@ public class AddressTest {
 
                                 });
         }
+
+        @Test
+        void exportCsvWithAddresses() throws Exception {
+                Contact contact = contactRepository.findById(CONTACT_ID).orElseThrow();
+
+                for (int i = 0; i < 2; i++) {
+                        Address address = new Address();
+                        address.setId(UUID.randomUUID());
+                        address.setContact(contact);
+                        address.setStreet("jalan, " + i);
+                        address.setCity("gotham");
+                        address.setProvince("batman");
+                        address.setCountry("DC");
+                        address.setPostalCode("123123");
+                        addressRepository.save(address);
+                }
+
+                MvcResult started = mockMvc.perform(
+                                get("/api/contacts/export")
+                                                .queryParam("format", "csv")
+                                                .queryParam("addresses", "true")
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(started))
+                                .andExpectAll(
+                                                status().isOk(),
+                                                content().contentTypeCompatibleWith("text/csv"))
+                                .andDo(result -> {
+                                        String content = result.getResponse().getContentAsString();
+                                        String[] lines = content.split("\r\n");
+                                        assertEquals(3, lines.length);
+                                        assertEquals("id,firstName,lastName,email,phone,addressId,street,city,province,"
+                                                        + "country,postalCode", lines[0]);
+                                        assertTrue(lines[1].startsWith(CONTACT_ID + ",tes,salah,salah@co.a,145622,"));
+                                        assertTrue(content.contains(",\"jalan, 0\",gotham,batman,DC,123123\r\n"));
+                                        assertTrue(content.contains(",\"jalan, 1\",gotham,batman,DC,123123\r\n"));
+                                });
+        }
+
+        @Test
+        void bulkDeleteContactsWithAddresses() throws Exception {
+                Contact contact = contactRepository.findById(CONTACT_ID).orElseThrow();
+
+                Address address = new Address();
+                address.setId(ADDRESS_ID);
+                address.setContact(contact);
+                address.setStreet("jalan");
+                address.setCity("gotham");
+                address.setProvince("batman");
+                address.setCountry("DC");
+                address.setPostalCode("123123");
+                addressRepository.save(address);
+
+                BulkContactRequest request = BulkContactRequest.builder()
+                                .ids(List.of(CONTACT_ID.toString(), UUID.randomUUID().toString()))
+                                .build();
+
+                mockMvc.perform(
+                                post("/api/contacts/bulk-delete")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(request))
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<BulkContactResponse> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(1, response.getData().getAffected());
+                                });
+
+                assertFalse(contactRepository.existsById(CONTACT_ID));
+                assertFalse(addressRepository.existsById(ADDRESS_ID));
+        }
+
+        @Test
+        void getContactWithAddresses() throws Exception {
+                Contact contact = contactRepository.findById(CONTACT_ID).orElseThrow();
+
+                Address address = new Address();
+                address.setId(ADDRESS_ID);
+                address.setContact(contact);
+                address.setStreet("jalan");
+                address.setCity("gotham");
+                address.setProvince("batman");
+                address.setCountry("DC");
+                address.setPostalCode("123123");
+                addressRepository.save(address);
+
+                mockMvc.perform(
+                                get("/api/contacts/" + CONTACT_ID)
+                                                .queryParam("addresses", "true")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<ContactResponse> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(1, response.getData().getAddresses().size());
+                                        assertEquals(ADDRESS_ID.toString(), response.getData().getAddresses().get(0).getId());
+                                        assertEquals("gotham", response.getData().getAddresses().get(0).getCity());
+                                });
+
+                mockMvc.perform(
+                                get("/api/contacts/" + CONTACT_ID)
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<ContactResponse> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getData().getAddresses());
+                                });
+        }
+
+        @Test
+        void searchContactsWithAddresses() throws Exception {
+                User user = userRepository.findById("test").orElseThrow();
+
+                Contact other = new Contact();
+                other.setId(UUID.randomUUID());
+                other.setUser(user);
+                other.setFirstName("tes lain");
+                contactRepository.save(other);
+
+                for (Contact contact : List.of(contactRepository.findById(CONTACT_ID).orElseThrow(), other)) {
+                        for (int i = 0; i < 2; i++) {
+                                Address address = new Address();
+                                address.setId(UUID.randomUUID());
+                                address.setContact(contact);
+                                address.setStreet("jalan " + i);
+                                address.setCity("gotham");
+                                address.setProvince("batman");
+                                address.setCountry("DC");
+                                address.setPostalCode("123123");
+                                addressRepository.save(address);
+                        }
+                }
+
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("addresses", "true")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(2, response.getData().size());
+                                        response.getData().forEach(contact -> assertEquals(2, contact.getAddresses().size()));
+                                });
+        }
 }
@@ -4,6 +4,13 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,12 +18,15 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.api.membership.model.User;
 import com.api.membership.model.request.LoginUserRequest;
 import com.api.membership.model.response.TokenResponse;
 import com.api.membership.model.response.WebResponse;
 import com.api.membership.repository.UserRepository;
+import com.api.membership.service.TokenService;
+import com.api.membership.service.cache.TokenCache;
 import com.api.membership.service.security.BCrypt;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -34,8 +44,15 @@ public class AuthTest {
         @Autowired
         private ObjectMapper objectMapper;
 
+        @Autowired
+        private TokenCache tokenCache;
+
+        @Autowired
+        private TokenService tokenService;
+
         @BeforeEach
         void setUp() {
+                tokenCache.clear();
                 userRepository.deleteAll();
         }
 
@@ -175,4 +192,140 @@ public class AuthTest {
                                         assertNull(userDb.getTokenExpiredAt());
                                 });
         }
+
+        @Test
+        void logoutInvalidatesCachedToken() throws Exception {
+                User user = new User();
+                user.setUsername("test");
+                user.setPassword(BCrypt.hashpw("test1234", BCrypt.gensalt()));
+                user.setName("Usertest");
+                user.setToken("test");
+                user.setTokenExpiredAt(System.currentTimeMillis() + 100000000000L);
+                userRepository.save(user);
+
+                mockMvc.perform(
+                                get("/api/users/current")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                mockMvc.perform(
+                                delete("/api/auth/logout")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                mockMvc.perform(
+                                get("/api/users/current")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isUnauthorized());
+        }
+
+        @Test
+        void logoutWhileTokenIsResolvedConcurrently() throws Exception {
+                User user = new User();
+                user.setUsername("test");
+                user.setPassword(BCrypt.hashpw("test1234", BCrypt.gensalt()));
+                user.setName("Usertest");
+                user.setToken("test");
+                user.setTokenExpiredAt(System.currentTimeMillis() + 100000000000L);
+                userRepository.save(user);
+
+                AtomicBoolean loggedOut = new AtomicBoolean();
+                ExecutorService executor = Executors.newFixedThreadPool(4);
+                try {
+                        List<Future<?>> readers = new ArrayList<>();
+                        for (int i = 0; i < 4; i++) {
+                                readers.add(executor.submit(() -> {
+                                        while (!loggedOut.get()) {
+                                                try {
+                                                        tokenService.resolve("test");
+                                                } catch (ResponseStatusException e) {
+                                                        // Rejected once the logout is visible
+                                                }
+                                        }
+                                }));
+                        }
+
+                        mockMvc.perform(
+                                        delete("/api/auth/logout")
+                                                        .accept(MediaType.APPLICATION_JSON)
+                                                        .header("X-API-TOKEN", "test"))
+                                        .andExpectAll(
+                                                        status().isOk());
+                        loggedOut.set(true);
+                        for (Future<?> reader : readers) {
+                                reader.get();
+                        }
+                } finally {
+                        executor.shutdownNow();
+                }
+
+                mockMvc.perform(
+                                get("/api/users/current")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isUnauthorized());
+        }
+
+        @Test
+        void userReadBeforeLogoutIsNotCachedAfterIt() throws Exception {
+                User user = new User();
+                user.setUsername("test");
+                user.setPassword(BCrypt.hashpw("test1234", BCrypt.gensalt()));
+                user.setName("Usertest");
+                user.setToken("test");
+                user.setTokenExpiredAt(System.currentTimeMillis() + 100000000000L);
+                userRepository.save(user);
+
+                // A resolve that read the row just before the logout committed
+                long stamp = tokenCache.stamp("test");
+                mockMvc.perform(
+                                delete("/api/auth/logout")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+                tokenCache.put("test", user, user.getTokenExpiredAt(), stamp);
+
+                assertNull(tokenCache.get("test"));
+        }
+
+        @Test
+        void loginThrottled() throws Exception {
+                LoginUserRequest request = new LoginUserRequest();
+                request.setUsername("throttled");
+                request.setPassword("test1234");
+
+                for (int i = 0; i < 10; i++) {
+                        mockMvc.perform(
+                                        post("/api/auth/login")
+                                                        .accept(MediaType.APPLICATION_JSON)
+                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                        .content(objectMapper.writeValueAsString(request)))
+                                        .andExpectAll(
+                                                        status().isUnauthorized());
+                }
+
+                mockMvc.perform(
+                                post("/api/auth/login")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpectAll(
+                                                status().isTooManyRequests())
+                                .andDo(result -> {
+                                        WebResponse<String> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<WebResponse<String>>() {
+
+                                                        });
+                                        assertNotNull(response.getErrors());
+                                });
+        }
 }
@@ -0,0 +1,111 @@
+package com.api.membership.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.api.membership.model.User;
+import com.api.membership.model.response.ContactResponse;
+import com.api.membership.model.response.WebResponse;
+import com.api.membership.repository.AddressRepository;
+import com.api.membership.repository.ContactRepository;
+import com.api.membership.repository.UserRepository;
+import com.api.membership.service.cache.ContactSearchCache;
+import com.api.membership.service.cache.TokenCache;
+import com.api.membership.service.id.IdGenerator;
+import com.api.membership.service.security.BCrypt;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest(properties = "membership.search-cache.expire-after-write-seconds=1")
+@AutoConfigureMockMvc
+public class ContactSearchCacheTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private AddressRepository addressRepository;
+
+        @Autowired
+        private ContactRepository contactRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private IdGenerator idGenerator;
+
+        @Autowired
+        private TokenCache tokenCache;
+
+        @Autowired
+        private ContactSearchCache contactSearchCache;
+
+        @BeforeEach
+        void setUp() {
+                tokenCache.clear();
+                contactSearchCache.clear();
+                addressRepository.deleteAll();
+                contactRepository.deleteAll();
+                userRepository.deleteAll();
+
+                User user = new User();
+                user.setUsername("test");
+                user.setPassword(BCrypt.hashpw("test1234", BCrypt.gensalt()));
+                user.setName("Usertest");
+                user.setToken("test");
+                user.setTokenExpiredAt(System.currentTimeMillis() + 100000000000L);
+                userRepository.save(user);
+        }
+
+        @Test
+        void cachedSearchExpiresAfterWrite() throws Exception {
+                assertEquals(0, search().size());
+
+                // Written the way another instance would, without invalidating this one's cache
+                jdbcTemplate.update("insert into contacts (id, username, first_name, email, created_at) "
+                                + "values (?, ?, ?, ?, ?)", IdGenerator.toBytes(idGenerator.generate()), "test",
+                                "Budi", "budi@example.com", System.currentTimeMillis());
+
+                assertEquals(0, search().size());
+
+                Thread.sleep(1100);
+
+                assertEquals(1, search().size());
+        }
+
+        private List<ContactResponse> search() throws Exception {
+                String content = mockMvc.perform(
+                                get("/api/contacts")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+
+                WebResponse<List<ContactResponse>> response = objectMapper.readValue(content,
+                                new TypeReference<>() {
+
+                                });
+                assertNull(response.getErrors());
+                return response.getData();
+        }
+}
@@ -4,7 +4,10 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -14,15 +17,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import com.api.membership.model.Contact;
 import com.api.membership.model.User;
+import com.api.membership.model.request.BulkContactRequest;
+import com.api.membership.model.request.BulkUpdateContactRequest;
 import com.api.membership.model.request.CreateContactRequest;
 import com.api.membership.model.request.UpdateContactRequest;
+import com.api.membership.model.response.BulkContactResponse;
 import com.api.membership.model.response.ContactResponse;
+import com.api.membership.model.response.ImportContactResponse;
 import com.api.membership.model.response.WebResponse;
 import com.api.membership.repository.ContactRepository;
 import com.api.membership.repository.UserRepository;
+import com.api.membership.service.cache.ContactSearchCache;
+import com.api.membership.service.cache.TokenCache;
 import com.api.membership.service.security.BCrypt;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -43,8 +54,16 @@ public class ContactTest {
         @Autowired
         private ObjectMapper objectMapper;
 
+        @Autowired
+        private TokenCache tokenCache;
+
+        @Autowired
+        private ContactSearchCache contactSearchCache;
+
         @BeforeEach
         void setUp() {
+                tokenCache.clear();
+                contactSearchCache.clear();
                 contactRepository.deleteAll();
                 userRepository.deleteAll();
 
@@ -109,7 +128,7 @@ public class ContactTest {
                                         assertEquals("21453", response.getData().getPhone());
                                         assertEquals("salah@a.co", response.getData().getEmail());
 
-                                        assertTrue(contactRepository.existsById(response.getData().getId()));
+                                        assertTrue(contactRepository.existsById(UUID.fromString(response.getData().getId())));
                                 });
         }
 
@@ -137,7 +156,7 @@ public class ContactTest {
                 User user = userRepository.findById("test").orElseThrow();
 
                 Contact contact = new Contact();
-                contact.setId(UUID.randomUUID().toString());
+                contact.setId(UUID.randomUUID());
                 contact.setUser(user);
                 contact.setFirstName("tes");
                 contact.setLastName("salah");
@@ -159,7 +178,7 @@ public class ContactTest {
 
                                                         });
                                         assertNull(response.getErrors());
-                                        assertEquals(contact.getId(), response.getData().getId());
+                                        assertEquals(contact.getId().toString(), response.getData().getId());
                                         assertEquals(contact.getFirstName(), response.getData().getFirstName());
                                         assertEquals(contact.getLastName(), response.getData().getLastName());
                                         assertEquals(contact.getPhone(), response.getData().getPhone());
@@ -197,7 +216,7 @@ public class ContactTest {
                 User user = userRepository.findById("test").orElseThrow();
 
                 Contact contact = new Contact();
-                contact.setId(UUID.randomUUID().toString());
+                contact.setId(UUID.randomUUID());
                 contact.setUser(user);
                 contact.setFirstName("tes");
                 contact.setLastName("salah");
@@ -231,7 +250,7 @@ public class ContactTest {
                                         assertEquals(request.getPhone(), response.getData().getPhone());
                                         assertEquals(request.getEmail(), response.getData().getEmail());
 
-                                        assertTrue(contactRepository.existsById(response.getData().getId()));
+                                        assertTrue(contactRepository.existsById(UUID.fromString(response.getData().getId())));
                                 });
         }
 
@@ -259,7 +278,7 @@ public class ContactTest {
                 User user = userRepository.findById("test").orElseThrow();
 
                 Contact contact = new Contact();
-                contact.setId(UUID.randomUUID().toString());
+                contact.setId(UUID.randomUUID());
                 contact.setUser(user);
                 contact.setFirstName("tes");
                 contact.setLastName("salah");
@@ -317,7 +336,7 @@ public class ContactTest {
 
                 for (int i = 0; i < 100; i++) {
                         Contact contact = new Contact();
-                        contact.setId(UUID.randomUUID().toString());
+                        contact.setId(UUID.randomUUID());
                         contact.setUser(user);
                         contact.setFirstName("tes " + i);
                         contact.setLastName("salah");
@@ -348,4 +367,455 @@ public class ContactTest {
 
                                 });
         }
+
+        @Test
+        void searchWithCursor() throws Exception {
+                User user = userRepository.findById("test").orElseThrow();
+
+                for (int i = 0; i < 25; i++) {
+                        Contact contact = new Contact();
+                        contact.setId(UUID.randomUUID());
+                        contact.setUser(user);
+                        contact.setFirstName("tes " + i);
+                        contact.setLastName("salah");
+                        contact.setEmail("salah@co.a");
+                        contact.setPhone("145622");
+                        contactRepository.save(contact);
+                }
+
+                Set<String> seen = new HashSet<>();
+                String after = null;
+                int[] pageSizes = { 10, 10, 5 };
+                for (int expectedSize : pageSizes) {
+                        MockHttpServletRequestBuilder request = get("/api/contacts")
+                                        .queryParam("name", "tes")
+                                        .accept(MediaType.APPLICATION_JSON)
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .header("X-API-TOKEN", "test");
+                        if (after != null) {
+                                request.queryParam("after", after);
+                        }
+
+                        String content = mockMvc.perform(request)
+                                        .andExpectAll(
+                                                        status().isOk())
+                                        .andReturn().getResponse().getContentAsString();
+                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(content,
+                                        new TypeReference<>() {
+
+                                        });
+                        assertNull(response.getErrors());
+                        assertEquals(expectedSize, response.getData().size());
+                        response.getData().forEach(contact -> assertTrue(seen.add(contact.getId())));
+                        after = response.getPaging().getNextCursor();
+                }
+
+                assertNull(after);
+                assertEquals(25, seen.size());
+        }
+
+        @Test
+        void searchWithoutTotal() throws Exception {
+                User user = userRepository.findById("test").orElseThrow();
+
+                for (int i = 0; i < 15; i++) {
+                        Contact contact = new Contact();
+                        contact.setId(UUID.randomUUID());
+                        contact.setUser(user);
+                        contact.setFirstName("tes " + i);
+                        contact.setLastName("salah");
+                        contact.setEmail("salah@co.a");
+                        contact.setPhone("145622");
+                        contactRepository.save(contact);
+                }
+
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("name", "tes")
+                                                .queryParam("total", "none")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(10, response.getData().size());
+                                        assertNull(response.getPaging().getTotalPage());
+                                        assertTrue(response.getPaging().getHasNext());
+                                        assertEquals(0, response.getPaging().getCurrentPage());
+                                });
+
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("name", "tes")
+                                                .queryParam("total", "none")
+                                                .queryParam("page", "1")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(5, response.getData().size());
+                                        assertFalse(response.getPaging().getHasNext());
+                                        assertNull(response.getPaging().getNextCursor());
+                                });
+        }
+
+        @Test
+        void searchSeesCreatedContact() throws Exception {
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("name", "budi")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(0, response.getData().size());
+                                });
+
+                CreateContactRequest request = new CreateContactRequest();
+                request.setFirstName("Budi");
+                request.setLastName("Santoso");
+                request.setEmail("budi@example.com");
+                request.setPhone("08123456789");
+
+                mockMvc.perform(
+                                post("/api/contacts")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(request))
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("name", "budi")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(1, response.getData().size());
+                                });
+        }
+
+        @Test
+        void searchByPhonePrefixAndSuffix() throws Exception {
+                User user = userRepository.findById("test").orElseThrow();
+
+                Contact contact = new Contact();
+                contact.setId(UUID.randomUUID());
+                contact.setUser(user);
+                contact.setFirstName("Budi");
+                contact.setEmail("budi@example.com");
+                contact.setPhone("+62 812-345-678");
+                contactRepository.save(contact);
+
+                for (String phone : List.of("0812345", "812 345", "678")) {
+                        mockMvc.perform(
+                                        get("/api/contacts")
+                                                        .queryParam("phone", phone)
+                                                        .accept(MediaType.APPLICATION_JSON)
+                                                        .header("X-API-TOKEN", "test"))
+                                        .andExpectAll(
+                                                        status().isOk())
+                                        .andDo(result -> {
+                                                WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                                                result.getResponse().getContentAsString(),
+                                                                new TypeReference<>() {
+
+                                                                });
+                                                assertNull(response.getErrors());
+                                                assertEquals(1, response.getData().size());
+                                        });
+                }
+        }
+
+        @Test
+        void searchByPhoneSuffixKeepsLeadingZero() throws Exception {
+                User user = userRepository.findById("test").orElseThrow();
+                for (String[] row : new String[][] { { "Budi", "0812-1345" }, { "Joko", "0812-0345" } }) {
+                        Contact contact = new Contact();
+                        contact.setId(UUID.randomUUID());
+                        contact.setUser(user);
+                        contact.setFirstName(row[0]);
+                        contact.setPhone(row[1]);
+                        contactRepository.save(contact);
+                }
+
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("phone", "0345")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(1, response.getData().size());
+                                        assertEquals("Joko", response.getData().get(0).getFirstName());
+                                });
+        }
+
+        @Test
+        void exportNdjson() throws Exception {
+                User user = userRepository.findById("test").orElseThrow();
+                for (int i = 0; i < 3; i++) {
+                        Contact contact = new Contact();
+                        contact.setId(UUID.randomUUID());
+                        contact.setUser(user);
+                        contact.setFirstName("Budi " + i);
+                        contact.setEmail("budi" + i + "@example.com");
+                        contact.setPhone("0812345678" + i);
+                        contactRepository.save(contact);
+                }
+
+                MvcResult started = mockMvc.perform(
+                                get("/api/contacts/export")
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpect(request().asyncStarted())
+                                .andReturn();
+
+                mockMvc.perform(asyncDispatch(started))
+                                .andExpectAll(
+                                                status().isOk(),
+                                                content().contentType("application/x-ndjson"))
+                                .andDo(result -> {
+                                        String[] lines = result.getResponse().getContentAsString().split("\n");
+                                        assertEquals(3, lines.length);
+                                        for (String line : lines) {
+                                                ContactResponse contact = objectMapper.readValue(line, ContactResponse.class);
+                                                assertTrue(contact.getFirstName().startsWith("Budi "));
+                                                assertNotNull(contact.getId());
+                                        }
+                                });
+        }
+
+        @Test
+        void exportBadFormat() throws Exception {
+                mockMvc.perform(
+                                get("/api/contacts/export")
+                                                .queryParam("format", "xml")
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isBadRequest());
+        }
+
+        @Test
+        void importContactsReportsInvalidRows() throws Exception {
+                List<CreateContactRequest> requests = List.of(
+                                CreateContactRequest.builder().firstName("Budi").email("budi@example.com").build(),
+                                CreateContactRequest.builder().firstName("").email("salah").build(),
+                                CreateContactRequest.builder().firstName("Siti").phone("+62 812-345-678").build());
+
+                mockMvc.perform(
+                                post("/api/contacts/import")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(requests))
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<ImportContactResponse> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(2, response.getData().getImported());
+                                        assertEquals(1, response.getData().getFailed());
+                                        assertEquals(1, response.getData().getErrors().get(0).getRow());
+                                });
+
+                assertEquals(2, contactRepository.count());
+
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("phone", "0812345")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertEquals(1, response.getData().size());
+                                        assertEquals("Siti", response.getData().get(0).getFirstName());
+                                });
+        }
+
+        @Test
+        void importContactsNdjsonSkipsUnreadableRows() throws Exception {
+                String body = "{\"firstName\":\"Budi\"}\n"
+                                + "{\"firstName\":[\"not\",\"a\",\"name\"]}\n"
+                                + "{\"firstName\":\"Siti\"}\n";
+
+                mockMvc.perform(
+                                post("/api/contacts/import")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_NDJSON)
+                                                .content(body)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<ImportContactResponse> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertEquals(2, response.getData().getImported());
+                                        assertEquals(1, response.getData().getFailed());
+                                        assertEquals(1, response.getData().getErrors().get(0).getRow());
+                                });
+        }
+
+        @Test
+        void bulkUpdateByFilter() throws Exception {
+                User user = userRepository.findById("test").orElseThrow();
+                for (String firstName : List.of("Budi", "Budiman", "Siti")) {
+                        Contact contact = new Contact();
+                        contact.setId(UUID.randomUUID());
+                        contact.setUser(user);
+                        contact.setFirstName(firstName);
+                        contactRepository.save(contact);
+                }
+
+                BulkUpdateContactRequest request = BulkUpdateContactRequest.builder()
+                                .where(BulkContactRequest.builder().name("budi").build())
+                                .lastName("Santoso")
+                                .build();
+
+                mockMvc.perform(
+                                post("/api/contacts/bulk-update")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(request))
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<BulkContactResponse> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertNull(response.getErrors());
+                                        assertEquals(2, response.getData().getAffected());
+                                });
+
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("name", "santoso")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andDo(result -> {
+                                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                                        result.getResponse().getContentAsString(),
+                                                        new TypeReference<>() {
+
+                                                        });
+                                        assertEquals(2, response.getData().size());
+                                });
+        }
+
+        @Test
+        void bulkDeleteWithoutSelection() throws Exception {
+                mockMvc.perform(
+                                post("/api/contacts/bulk-delete")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content("{}")
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isBadRequest());
+        }
+
+        @Test
+        void searchSortedWithCursor() throws Exception {
+                User user = userRepository.findById("test").orElseThrow();
+                for (String lastName : List.of("Citra", "Ahmad", "Dewi", "Budi")) {
+                        Contact contact = new Contact();
+                        contact.setId(UUID.randomUUID());
+                        contact.setUser(user);
+                        contact.setFirstName("tes");
+                        contact.setLastName(lastName);
+                        contactRepository.save(contact);
+                }
+
+                List<String> lastNames = new ArrayList<>();
+                String cursor = null;
+                for (int page = 0; page < 2; page++) {
+                        MockHttpServletRequestBuilder request = get("/api/contacts")
+                                        .queryParam("sort", "lastName,desc")
+                                        .queryParam("size", "2")
+                                        .accept(MediaType.APPLICATION_JSON)
+                                        .header("X-API-TOKEN", "test");
+                        if (cursor != null) {
+                                request.queryParam("after", cursor);
+                        }
+
+                        WebResponse<List<ContactResponse>> response = objectMapper.readValue(
+                                        mockMvc.perform(request)
+                                                        .andExpect(status().isOk())
+                                                        .andReturn().getResponse().getContentAsString(),
+                                        new TypeReference<>() {
+
+                                        });
+                        response.getData().forEach(contact -> lastNames.add(contact.getLastName()));
+                        cursor = response.getPaging().getNextCursor();
+                }
+
+                assertEquals(List.of("Dewi", "Citra", "Budi", "Ahmad"), lastNames);
+                assertNull(cursor);
+        }
+
+        @Test
+        void searchSortBadRequest() throws Exception {
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .queryParam("sort", "phone")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isBadRequest());
+        }
 }
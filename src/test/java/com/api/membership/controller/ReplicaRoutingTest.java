@@ -0,0 +1,184 @@
+package com.api.membership.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.api.membership.model.User;
+import com.api.membership.model.request.CreateContactRequest;
+import com.api.membership.model.response.ContactResponse;
+import com.api.membership.model.response.WebResponse;
+import com.api.membership.repository.AddressRepository;
+import com.api.membership.repository.ContactRepository;
+import com.api.membership.repository.UserRepository;
+import com.api.membership.service.cache.ContactSearchCache;
+import com.api.membership.service.cache.TokenCache;
+import com.api.membership.service.routing.ReadYourWrites;
+import com.api.membership.service.routing.ReplicaSet;
+import com.api.membership.service.security.BCrypt;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs against two local MySQL instances: the usual one on port 3306, and a second one on port 3307
+ * replicating {@code spring-membership} from it.
+ */
+@SpringBootTest(properties = {
+                "membership.replicas.urls=" + ReplicaRoutingTest.REPLICA_URL,
+                "membership.replicas.check-interval-ms=100",
+                "membership.replicas.max-lag-ms=1000" })
+@AutoConfigureMockMvc
+public class ReplicaRoutingTest {
+
+        static final String REPLICA_URL = "jdbc:mysql://localhost:3307/spring-membership";
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private AddressRepository addressRepository;
+
+        @Autowired
+        private ContactRepository contactRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private TokenCache tokenCache;
+
+        @Autowired
+        private ContactSearchCache contactSearchCache;
+
+        @Autowired
+        private ReplicaSet replicaSet;
+
+        @Autowired
+        private ReadYourWrites readYourWrites;
+
+        @Autowired
+        private MeterRegistry meterRegistry;
+
+        private JdbcTemplate replica;
+
+        @BeforeEach
+        void setUp() throws Exception {
+                tokenCache.clear();
+                contactSearchCache.clear();
+                readYourWrites.clear();
+                addressRepository.deleteAll();
+                contactRepository.deleteAll();
+                userRepository.deleteAll();
+
+                User user = new User();
+                user.setUsername("test");
+                user.setPassword(BCrypt.hashpw("test1234", BCrypt.gensalt()));
+                user.setName("Usertest");
+                user.setToken("test");
+                user.setTokenExpiredAt(System.currentTimeMillis() + 100000000000L);
+                userRepository.save(user);
+
+                replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "root", "Server1"));
+                for (int i = 0; i < 500 && replica.queryForObject(
+                                "select count(*) from users where username = 'test'", Long.class) == 0; i++) {
+                        Thread.sleep(20);
+                }
+                replicaSet.check();
+                assertEquals(1, replicaSet.healthyCount());
+        }
+
+        @Test
+        void readOnlySearchGoesToReplica() throws Exception {
+                double before = routed("replica", "read-only");
+
+                mockMvc.perform(
+                                get("/api/contacts")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                assertEquals(before + 1, routed("replica", "read-only"));
+        }
+
+        @Test
+        void readAfterOwnWriteStaysOnPrimary() throws Exception {
+                CreateContactRequest request = new CreateContactRequest();
+                request.setFirstName("tes");
+                request.setEmail("salah@a.co");
+
+                String id = objectMapper.<WebResponse<ContactResponse>>readValue(mockMvc.perform(
+                                post("/api/contacts")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(request))
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andReturn().getResponse().getContentAsString(),
+                                new TypeReference<WebResponse<ContactResponse>>() {
+
+                                }).getData().getId();
+
+                double toReplica = routed("replica", "read-only");
+                double sticky = routed("primary", "sticky");
+
+                mockMvc.perform(
+                                get("/api/contacts/" + id)
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                assertEquals(toReplica, routed("replica", "read-only"));
+                assertEquals(sticky + 1, routed("primary", "sticky"));
+        }
+
+        @Test
+        void laggingReplicaIsSkipped() throws Exception {
+                replica.execute("STOP REPLICA SQL_THREAD");
+                try {
+                        Thread.sleep(1200);
+                        replicaSet.check();
+                        assertEquals(0, replicaSet.healthyCount());
+
+                        double toReplica = routed("replica", "read-only");
+                        double lagging = routed("primary", "lagging");
+
+                        mockMvc.perform(
+                                        get("/api/contacts")
+                                                        .accept(MediaType.APPLICATION_JSON)
+                                                        .header("X-API-TOKEN", "test"))
+                                        .andExpectAll(
+                                                        status().isOk());
+
+                        assertEquals(toReplica, routed("replica", "read-only"));
+                        assertEquals(lagging + 1, routed("primary", "lagging"));
+                } finally {
+                        replica.execute("START REPLICA SQL_THREAD");
+                }
+        }
+
+        private double routed(String target, String reason) {
+                return meterRegistry.get("membership.datasource.route")
+                                .tag("target", target)
+                                .tag("reason", reason)
+                                .counter()
+                                .count();
+        }
+}
@@ -0,0 +1,162 @@
+package com.api.membership.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.api.membership.model.User;
+import com.api.membership.model.request.LoginUserRequest;
+import com.api.membership.repository.AddressRepository;
+import com.api.membership.repository.ContactRepository;
+import com.api.membership.repository.UserRepository;
+import com.api.membership.service.TokenSweeper;
+import com.api.membership.service.cache.TokenCache;
+import com.api.membership.service.security.BCrypt;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SecondLevelCacheTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private AddressRepository addressRepository;
+
+        @Autowired
+        private ContactRepository contactRepository;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private TokenCache tokenCache;
+
+        @Autowired
+        private TokenSweeper tokenSweeper;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        private Statistics statistics;
+
+        @BeforeEach
+        void setUp() {
+                tokenCache.clear();
+                addressRepository.deleteAll();
+                contactRepository.deleteAll();
+                userRepository.deleteAll();
+
+                statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        }
+
+        @Test
+        void tokenLookupIsNotServedFromQueryCache() throws Exception {
+                saveUser(System.currentTimeMillis() + 100000000000L);
+                statistics.clear();
+
+                for (int i = 0; i < 2; i++) {
+                        tokenCache.clear();
+                        mockMvc.perform(
+                                        get("/api/users/current")
+                                                        .accept(MediaType.APPLICATION_JSON)
+                                                        .header("X-API-TOKEN", "test"))
+                                        .andExpectAll(
+                                                        status().isOk());
+                }
+
+                // Every lookup past the token cache reaches the database
+                assertEquals(2, statistics.getPrepareStatementCount());
+                assertEquals(0, statistics.getQueryCacheHitCount());
+        }
+
+        @Test
+        void tokenRevokedByAnotherInstanceIsRejected() throws Exception {
+                saveUser(System.currentTimeMillis() + 100000000000L);
+                mockMvc.perform(
+                                get("/api/users/current")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isOk());
+
+                // Another instance logs the user out; only its own caches see the change
+                jdbcTemplate.update("update users set token = null, token_hash = null, token_expired_at = null "
+                                + "where username = ?", "test");
+                tokenCache.clear();
+
+                mockMvc.perform(
+                                get("/api/users/current")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", "test"))
+                                .andExpectAll(
+                                                status().isUnauthorized());
+        }
+
+        @Test
+        void passwordChangedByAnotherInstanceIsChecked() throws Exception {
+                saveUser(System.currentTimeMillis() + 100000000000L);
+                assertNotNull(userRepository.findById("test").orElseThrow().getPassword());
+
+                // Another instance changes the password; the cached user still has the old one
+                jdbcTemplate.update("update users set password = ?, version = version + 1 where username = ?",
+                                BCrypt.hashpw("changed1234", BCrypt.gensalt()), "test");
+
+                login("test1234").andExpectAll(status().isUnauthorized());
+                login("changed1234").andExpectAll(status().isOk());
+                assertTrue(BCrypt.checkpw("changed1234", userRepository.findById("test").orElseThrow().getPassword()));
+        }
+
+        @Test
+        void sweeperEvictsClearedUsers() throws Exception {
+                saveUser(System.currentTimeMillis() - 1000);
+                assertEquals("test", userRepository.findById("test").orElseThrow().getToken());
+
+                tokenSweeper.sweep();
+
+                assertNull(userRepository.findById("test").orElseThrow().getToken());
+        }
+
+        private ResultActions login(String password) throws Exception {
+                LoginUserRequest request = new LoginUserRequest();
+                request.setUsername("test");
+                request.setPassword(password);
+
+                return mockMvc.perform(
+                                post("/api/auth/login")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(request)));
+        }
+
+        private void saveUser(long tokenExpiredAt) {
+                User user = new User();
+                user.setUsername("test");
+                user.setPassword(BCrypt.hashpw("test1234", BCrypt.gensalt()));
+                user.setName("Usertest");
+                user.setToken("test");
+                user.setTokenExpiredAt(tokenExpiredAt);
+                userRepository.save(user);
+        }
+}
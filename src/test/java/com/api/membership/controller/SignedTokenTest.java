@@ -0,0 +1,95 @@
+package com.api.membership.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.api.membership.model.User;
+import com.api.membership.repository.UserRepository;
+import com.api.membership.service.cache.TokenCache;
+import com.api.membership.service.security.BCrypt;
+import com.api.membership.service.security.TokenSigner;
+
+@SpringBootTest(properties = {
+                "membership.token.mode=signed",
+                "membership.token.signing-keys=retired:cmV0aXJlZC1zaWduaW5nLWtleS0wMTIzNDU2Nzg5YWI=,"
+                                + "active:YWN0aXZlLXNpZ25pbmcta2V5LTAxMjM0NTY3ODlhYmM=",
+                "membership.token.active-key-id=active" })
+@AutoConfigureMockMvc
+public class SignedTokenTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private TokenCache tokenCache;
+
+        @Autowired
+        private TokenSigner tokenSigner;
+
+        @BeforeEach
+        void setUp() {
+                tokenCache.clear();
+                userRepository.deleteAll();
+
+                User user = new User();
+                user.setUsername("test");
+                user.setPassword(BCrypt.hashpw("test1234", BCrypt.gensalt()));
+                user.setName("Usertest");
+                userRepository.save(user);
+        }
+
+        @Test
+        void signedTokenIsAccepted() throws Exception {
+                current(tokenSigner.sign("test", System.currentTimeMillis() + 60000))
+                                .andExpectAll(status().isOk());
+        }
+
+        @Test
+        void expiredTokenIsRejected() throws Exception {
+                current(tokenSigner.sign("test", System.currentTimeMillis() - 1000))
+                                .andExpectAll(status().isUnauthorized());
+        }
+
+        @Test
+        void modifiedTokenIsRejected() throws Exception {
+                String token = tokenSigner.sign("test", System.currentTimeMillis() + 60000);
+                String[] parts = token.split("\\.");
+
+                current(parts[0] + "." + parts[1] + "." + (Long.parseLong(parts[2]) + 1) + "." + parts[3])
+                                .andExpectAll(status().isUnauthorized());
+        }
+
+        @Test
+        void loggedOutTokenIsRejected() throws Exception {
+                String token = tokenSigner.sign("test", System.currentTimeMillis() + 60000);
+                current(token).andExpectAll(status().isOk());
+
+                mockMvc.perform(
+                                delete("/api/auth/logout")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", token))
+                                .andExpectAll(
+                                                status().isOk());
+
+                current(token).andExpectAll(status().isUnauthorized());
+        }
+
+        private ResultActions current(String token) throws Exception {
+                return mockMvc.perform(
+                                get("/api/users/current")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", token));
+        }
+}
@@ -0,0 +1,192 @@
+package com.api.membership.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.api.membership.model.User;
+import com.api.membership.model.request.LoginUserRequest;
+import com.api.membership.model.response.TokenResponse;
+import com.api.membership.model.response.WebResponse;
+import com.api.membership.repository.UserRepository;
+import com.api.membership.service.TokenWriteBehind;
+import com.api.membership.service.cache.TokenCache;
+import com.api.membership.service.security.BCrypt;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs with write-behind on and a flush interval long enough that only the tests flush.
+ */
+@SpringBootTest(properties = {
+                "membership.token.write-behind.enabled=true",
+                "membership.token.write-behind.flush-interval-ms=3600000" })
+@AutoConfigureMockMvc
+public class TokenWriteBehindTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @Autowired
+        private UserRepository userRepository;
+
+        @Autowired
+        private ObjectMapper objectMapper;
+
+        @Autowired
+        private TokenCache tokenCache;
+
+        @Autowired
+        private TokenWriteBehind tokenWriteBehind;
+
+        @SpyBean
+        private JdbcTemplate jdbcTemplate;
+
+        @BeforeEach
+        void setUp() {
+                tokenWriteBehind.flush();
+                tokenCache.clear();
+                userRepository.deleteAll();
+
+                User user = new User();
+                user.setUsername("test");
+                user.setPassword(BCrypt.hashpw("test1234", BCrypt.gensalt()));
+                user.setName("Usertest");
+                user.setToken("test");
+                user.setTokenExpiredAt(System.currentTimeMillis() + 100000000000L);
+                userRepository.save(user);
+        }
+
+        @Test
+        void issuedTokenResolvesBeforeFlush() throws Exception {
+                String token = login();
+                assertEquals("test", storedToken());
+
+                current(token).andExpectAll(status().isOk());
+
+                tokenWriteBehind.flush();
+                assertEquals(token, storedToken());
+                current(token).andExpectAll(status().isOk());
+        }
+
+        @Test
+        void replacedTokenIsRejected() throws Exception {
+                String first = login();
+
+                // The database still holds the token the login replaced
+                assertEquals("test", storedToken());
+                current("test").andExpectAll(status().isUnauthorized());
+
+                String second = login();
+                current(first).andExpectAll(status().isUnauthorized());
+                current(second).andExpectAll(status().isOk());
+
+                tokenWriteBehind.flush();
+                assertEquals(second, storedToken());
+                current("test").andExpectAll(status().isUnauthorized());
+                current(first).andExpectAll(status().isUnauthorized());
+        }
+
+        @Test
+        void logoutRacingPendingIssueWins() throws Exception {
+                String token = login();
+
+                AtomicBoolean loggedOut = new AtomicBoolean();
+                ExecutorService executor = Executors.newSingleThreadExecutor();
+                try {
+                        Future<?> flusher = executor.submit(() -> {
+                                while (!loggedOut.get()) {
+                                        tokenWriteBehind.flush();
+                                }
+                        });
+
+                        logout(token).andExpectAll(status().isOk());
+                        loggedOut.set(true);
+                        flusher.get();
+                } finally {
+                        executor.shutdownNow();
+                }
+
+                tokenWriteBehind.flush();
+                assertNull(storedToken());
+                current(token).andExpectAll(status().isUnauthorized());
+                current("test").andExpectAll(status().isUnauthorized());
+        }
+
+        @Test
+        void failedFlushIsSurfacedAndRetried() throws Exception {
+                String token = login();
+
+                doThrow(new QueryTimeoutException("Lock wait timeout exceeded"))
+                                .doCallRealMethod()
+                                .when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+                assertThrows(QueryTimeoutException.class, tokenWriteBehind::flush);
+                assertEquals("test", storedToken());
+                current(token).andExpectAll(status().isOk());
+                current("test").andExpectAll(status().isUnauthorized());
+
+                tokenWriteBehind.flush();
+                assertEquals(token, storedToken());
+                current(token).andExpectAll(status().isOk());
+        }
+
+        private String login() throws Exception {
+                LoginUserRequest request = new LoginUserRequest();
+                request.setUsername("test");
+                request.setPassword("test1234");
+
+                String content = mockMvc.perform(
+                                post("/api/auth/login")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(objectMapper.writeValueAsString(request)))
+                                .andExpectAll(
+                                                status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+
+                WebResponse<TokenResponse> response = objectMapper.readValue(content,
+                                new TypeReference<>() {
+
+                                });
+                return response.getData().getToken();
+        }
+
+        private ResultActions current(String token) throws Exception {
+                return mockMvc.perform(
+                                get("/api/users/current")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", token));
+        }
+
+        private ResultActions logout(String token) throws Exception {
+                return mockMvc.perform(
+                                delete("/api/auth/logout")
+                                                .accept(MediaType.APPLICATION_JSON)
+                                                .header("X-API-TOKEN", token));
+        }
+
+        private String storedToken() {
+                return jdbcTemplate.queryForObject("select token from users where username = ?", String.class,
+                                "test");
+        }
+}
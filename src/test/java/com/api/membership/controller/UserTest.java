@@ -17,6 +17,7 @@ import com.api.membership.model.request.UpdateUserRequest;
 import com.api.membership.model.response.UserResponse;
 import com.api.membership.model.response.WebResponse;
 import com.api.membership.repository.UserRepository;
+import com.api.membership.service.cache.TokenCache;
 import com.api.membership.service.security.BCrypt;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -34,8 +35,12 @@ public class UserTest {
         @Autowired
         private ObjectMapper objectMapper;
 
+        @Autowired
+        private TokenCache tokenCache;
+
         @BeforeEach
         void setUp() {
+                tokenCache.clear();
                 userRepository.deleteAll();
         }
 
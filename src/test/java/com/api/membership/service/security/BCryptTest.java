@@ -0,0 +1,110 @@
+package com.api.membership.service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Known answers from the jBCrypt test suite and the OpenBSD and Openwall crypt_blowfish vectors.
+ */
+public class BCryptTest {
+
+        private static final String[][] VECTORS = {
+                        { "", "$2a$05$CCCCCCCCCCCCCCCCCCCCC.",
+                                        "$2a$05$CCCCCCCCCCCCCCCCCCCCC.7uG0VCzI2bS7j6ymqJi9CdcdxiRTWNy" },
+                        { "", "$2a$06$DCq7YPn5Rq63x1Lad4cll.",
+                                        "$2a$06$DCq7YPn5Rq63x1Lad4cll.TV4S6ytwfsfvkgY8jIucDrjc8deX1s." },
+                        { "", "$2a$08$HqWuK6/Ng6sg9gQzbLrgb.",
+                                        "$2a$08$HqWuK6/Ng6sg9gQzbLrgb.Tl.ZHfXLhvt/SgVyWhQqgqcZ7ZuUtye" },
+                        { "", "$2a$10$k1wbIrmNyFAPwPVPSVa/ze",
+                                        "$2a$10$k1wbIrmNyFAPwPVPSVa/zecw2BCEnBwVS2GbrmgzxFUOqW9dk4TCW" },
+                        { "", "$2a$12$k42ZFHFWqBp3vWli.nIn8u",
+                                        "$2a$12$k42ZFHFWqBp3vWli.nIn8uYyIkbvYRvodzbfbK18SSsY.CsIQPlxO" },
+                        { "a", "$2a$06$m0CrhHm10qJ3lXRY.5zDGO",
+                                        "$2a$06$m0CrhHm10qJ3lXRY.5zDGO3rS2KdeeWLuGmsfGlMfOxih58VYVfxe" },
+                        { "a", "$2a$08$cfcvVd2aQ8CMvoMpP2EBfe",
+                                        "$2a$08$cfcvVd2aQ8CMvoMpP2EBfeodLEkkFJ9umNEfPD18.hUF62qqlC/V." },
+                        { "a", "$2a$10$k87L/MF28Q673VKh8/cPi.",
+                                        "$2a$10$k87L/MF28Q673VKh8/cPi.SUl7MU/rWuSiIDDFayrKk/1tBsSQu4u" },
+                        { "abc", "$2a$06$If6bvum7DFjUnE9p2uDeDu",
+                                        "$2a$06$If6bvum7DFjUnE9p2uDeDu0YHzrHM6tf.iqN8.yx.jNN1ILEf7h0i" },
+                        { "abc", "$2a$08$Ro0CUfOqk6cXEKf3dyaM7O",
+                                        "$2a$08$Ro0CUfOqk6cXEKf3dyaM7OhSCvnwM9s4wIX9JeLapehKK5YdLxKcm" },
+                        { "abc", "$2a$10$WvvTPHKwdBJ3uk0Z37EMR.",
+                                        "$2a$10$WvvTPHKwdBJ3uk0Z37EMR.hLA2W6N9AEBhEgrAOljy2Ae5MtaSIUi" },
+                        { "abcdefghijklmnopqrstuvwxyz", "$2a$06$.rCVZVOThsIa97pEDOxvGu",
+                                        "$2a$06$.rCVZVOThsIa97pEDOxvGuRRgzG64bvtJ0938xuqzv18d3ZpQhstC" },
+                        { "abcdefghijklmnopqrstuvwxyz", "$2a$08$aTsUwsyowQuzRrDqFflhge",
+                                        "$2a$08$aTsUwsyowQuzRrDqFflhgekJ8d9/7Z3GV3UcgvzQW3J5zMyrTvlz." },
+                        { "~!@#$%^&*()      ~!@#$%^&*()PNBFRD", "$2a$06$fPIsBO8qRqkjj273rfaOI.",
+                                        "$2a$06$fPIsBO8qRqkjj273rfaOI.HtSV9jLDpTbZn782DC6/t7qT67P6FfO" },
+                        { "U*U", "$2a$05$CCCCCCCCCCCCCCCCCCCCC.",
+                                        "$2a$05$CCCCCCCCCCCCCCCCCCCCC.E5YPO9kmyuRGyh0XouQYb4YMJKvyOeW" },
+                        { "U*U*", "$2a$05$CCCCCCCCCCCCCCCCCCCCC.",
+                                        "$2a$05$CCCCCCCCCCCCCCCCCCCCC.VGOzA784oUp/Z0DY336zx7pLYAy0lwK" },
+                        { "U*U*U", "$2a$05$XXXXXXXXXXXXXXXXXXXXXO",
+                                        "$2a$05$XXXXXXXXXXXXXXXXXXXXXOAcXxm9kjPGEMsLznoKqmqw7tc8WCx4a" },
+                        { "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789chars after 72 are ignored",
+                                        "$2a$05$abcdefghijklmnopqrstuu",
+                                        "$2a$05$abcdefghijklmnopqrstuu5s2v8.iXieOjg/.AySBTTZIIVFJeBui" },
+        };
+
+        private static final byte[] POUND = { (byte) 0xa3 };
+
+        private static final byte[] FF_FF_POUND = { (byte) 0xff, (byte) 0xff, (byte) 0xa3 };
+
+        @Test
+        void hashMatchesKnownAnswers() {
+                for (String[] vector : VECTORS) {
+                        assertEquals(vector[2], BCrypt.hashpw(vector[0], vector[1]), vector[1]);
+                        assertEquals(vector[2], BCrypt.hashpw(vector[0], vector[2]), vector[2]);
+                }
+        }
+
+        @Test
+        void revisionsHashBytesAsSpecified() {
+                assertEquals("$2a$05$/OK.fbVrR/bpIqNJ5ianF.Sa7shbm4.OzKpvFnX1pQLmQW96oUlCq",
+                                BCrypt.hashpw(POUND, "$2a$05$/OK.fbVrR/bpIqNJ5ianF."));
+                assertEquals("$2y$05$/OK.fbVrR/bpIqNJ5ianF.Sa7shbm4.OzKpvFnX1pQLmQW96oUlCq",
+                                BCrypt.hashpw(POUND, "$2y$05$/OK.fbVrR/bpIqNJ5ianF."));
+                assertEquals("$2x$05$/OK.fbVrR/bpIqNJ5ianF.CE5elHaaO4EbggVDjb8P19RukzXSM3e",
+                                BCrypt.hashpw(POUND, "$2x$05$/OK.fbVrR/bpIqNJ5ianF."));
+                assertEquals("$2y$05$/OK.fbVrR/bpIqNJ5ianF.CE5elHaaO4EbggVDjb8P19RukzXSM3e",
+                                BCrypt.hashpw(FF_FF_POUND, "$2y$05$/OK.fbVrR/bpIqNJ5ianF."));
+                assertEquals("$2b$05$/OK.fbVrR/bpIqNJ5ianF.CE5elHaaO4EbggVDjb8P19RukzXSM3e",
+                                BCrypt.hashpw(FF_FF_POUND, "$2b$05$/OK.fbVrR/bpIqNJ5ianF."));
+        }
+
+        @Test
+        void revisionDoesNotChangeHashOfShortPasswords() {
+                for (String[] vector : VECTORS) {
+                        for (String revision : new String[] { "$2b$", "$2y$" }) {
+                                String salt = revision + vector[1].substring(4);
+                                assertEquals(revision + vector[2].substring(4), BCrypt.hashpw(vector[0], salt), salt);
+                        }
+                }
+        }
+
+        @Test
+        void checkpwAcceptsKnownAnswers() {
+                for (String[] vector : VECTORS) {
+                        assertTrue(BCrypt.checkpw(vector[0], vector[2]), vector[2]);
+                        assertFalse(BCrypt.checkpw("x" + vector[0], vector[2]), vector[2]);
+                }
+                assertTrue(BCrypt.checkpw(POUND, "$2y$05$/OK.fbVrR/bpIqNJ5ianF.Sa7shbm4.OzKpvFnX1pQLmQW96oUlCq"));
+                assertFalse(BCrypt.checkpw(POUND, "$2x$05$/OK.fbVrR/bpIqNJ5ianF.Sa7shbm4.OzKpvFnX1pQLmQW96oUlCq"));
+        }
+
+        @Test
+        void checkpwRoundTripsGeneratedSalts() {
+                for (String prefix : new String[] { "$2a", "$2b", "$2y" }) {
+                        for (int cost = 4; cost <= 6; cost++) {
+                                String hash = BCrypt.hashpw("test1234", BCrypt.gensalt(prefix, cost));
+                                assertTrue(hash.startsWith(prefix + "$0" + cost + "$"), hash);
+                                assertEquals(cost, BCrypt.log_rounds(hash));
+                                assertTrue(BCrypt.checkpw("test1234", hash), hash);
+                                assertFalse(BCrypt.checkpw("test1235", hash), hash);
+                        }
+                }
+        }
+}
@@ -0,0 +1,75 @@
+package com.api.membership.service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PasswordHasherTest {
+
+        private final PasswordHasher hasher = hasher(12, 1);
+
+        @AfterEach
+        void tearDown() {
+                hasher.shutdown();
+        }
+
+        @Test
+        void hashWithinToleranceIsKept() {
+                assertFalse(hasher.needsRehash(BCrypt.gensalt(12)));
+                assertFalse(hasher.needsRehash(BCrypt.gensalt(11)));
+        }
+
+        @Test
+        void hashBelowToleranceIsUpgraded() {
+                assertTrue(hasher.needsRehash(BCrypt.gensalt(10)));
+                assertTrue(hasher.needsRehash(BCrypt.gensalt(4)));
+        }
+
+        @Test
+        void hashFromAFasterInstanceIsNotLowered() {
+                assertFalse(hasher.needsRehash(BCrypt.gensalt(13)));
+                assertFalse(hasher.needsRehash(BCrypt.gensalt(16)));
+                assertTrue(hasher.needsRehash(BCrypt.gensalt(17)));
+        }
+
+        @Test
+        void instancesOfDifferentCostsAgree() {
+                PasswordHasher slower = hasher(11, 1);
+                try {
+                        // Neither instance rehashes what the other one wrote
+                        assertFalse(slower.needsRehash(BCrypt.gensalt(12)));
+                        assertFalse(hasher.needsRehash(BCrypt.gensalt(11)));
+                } finally {
+                        slower.shutdown();
+                }
+        }
+
+        @Test
+        void zeroToleranceUpgradesAnyLowerCost() {
+                PasswordHasher strict = hasher(12, 0);
+                try {
+                        assertTrue(strict.needsRehash(BCrypt.gensalt(11)));
+                        assertFalse(strict.needsRehash(BCrypt.gensalt(12)));
+                        assertFalse(strict.needsRehash(BCrypt.gensalt(13)));
+                } finally {
+                        strict.shutdown();
+                }
+        }
+
+        private static PasswordHasher hasher(int cost, int rehashTolerance) {
+                PasswordHasher hasher = new PasswordHasher();
+                ReflectionTestUtils.setField(hasher, "meterRegistry", new SimpleMeterRegistry());
+                ReflectionTestUtils.setField(hasher, "threads", 1);
+                ReflectionTestUtils.setField(hasher, "queueCapacity", 1);
+                ReflectionTestUtils.setField(hasher, "fixedCost", cost);
+                ReflectionTestUtils.setField(hasher, "minCost", 10);
+                ReflectionTestUtils.setField(hasher, "maxCost", 16);
+                ReflectionTestUtils.setField(hasher, "rehashTolerance", rehashTolerance);
+                hasher.init();
+                return hasher;
+        }
+}
@@ -0,0 +1,56 @@
+package com.api.membership.service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenRevocationSetTest {
+
+        private static final int PURGE_INTERVAL = 1024;
+
+        private final TokenRevocationSet revocations = new TokenRevocationSet();
+
+        @Test
+        void revocationSurvivesPurgeUntilTokenExpires() {
+                byte[] signature = signature();
+                revocations.revoke(signature, System.currentTimeMillis() + 60000);
+
+                // Enough already expired revocations to trigger a purge
+                for (int i = 1; i < PURGE_INTERVAL; i++) {
+                        revocations.revoke(signature(), System.currentTimeMillis() - 1000);
+                }
+
+                assertTrue(revocations.isRevoked(signature));
+                assertEquals(1, revocations.size());
+        }
+
+        @Test
+        void revocationIsPurgedOnceTokenExpired() throws Exception {
+                byte[] signature = signature();
+                revocations.revoke(signature, System.currentTimeMillis() + 100);
+                assertTrue(revocations.isRevoked(signature));
+
+                Thread.sleep(150);
+                for (int i = 1; i < PURGE_INTERVAL; i++) {
+                        revocations.revoke(signature(), System.currentTimeMillis() - 1000);
+                }
+
+                assertFalse(revocations.isRevoked(signature));
+                assertEquals(0, revocations.size());
+        }
+
+        @Test
+        void otherSignaturesAreNotRevoked() {
+                revocations.revoke(signature(), System.currentTimeMillis() + 60000);
+
+                assertFalse(revocations.isRevoked(signature()));
+        }
+
+        private static byte[] signature() {
+                byte[] signature = new byte[32];
+                ThreadLocalRandom.current().nextBytes(signature);
+                return signature;
+        }
+}
@@ -0,0 +1,100 @@
+package com.api.membership.service.security;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class TokenSignerTest {
+
+        private static final String RETIRED = "retired:cmV0aXJlZC1zaWduaW5nLWtleS0wMTIzNDU2Nzg5YWI=";
+
+        private static final String ACTIVE = "active:YWN0aXZlLXNpZ25pbmcta2V5LTAxMjM0NTY3ODlhYmM=";
+
+        private static final String FORGED = "active:Zm9yZ2VyLXNpZ25pbmcta2V5LTAxMjM0NTY3ODlhYmM=";
+
+        private static final long EXPIRED_AT = 4102444800000L;
+
+        private final TokenSigner signer = signer(RETIRED + "," + ACTIVE, "active");
+
+        @Test
+        void signedTokenVerifies() {
+                String token = signer.sign("test", EXPIRED_AT);
+
+                assertTrue(token.startsWith("active."), token);
+                TokenSigner.SignedToken signed = signer.verify(token);
+                assertNotNull(signed);
+                assertEquals("test", signed.username());
+                assertEquals(EXPIRED_AT, signed.expiredAt());
+        }
+
+        @Test
+        void modifiedTokenIsRejected() {
+                String token = signer.sign("test", EXPIRED_AT);
+                String[] parts = token.split("\\.");
+
+                String otherUser = Base64.getUrlEncoder().withoutPadding()
+                                .encodeToString("other".getBytes(StandardCharsets.UTF_8));
+                assertNull(signer.verify(parts[0] + "." + otherUser + "." + parts[2] + "." + parts[3]));
+                assertNull(signer.verify(parts[0] + "." + parts[1] + "." + (EXPIRED_AT + 1) + "." + parts[3]));
+                assertNull(signer.verify("retired." + parts[1] + "." + parts[2] + "." + parts[3]));
+                assertNull(signer.verify("unknown." + parts[1] + "." + parts[2] + "." + parts[3]));
+
+                char first = parts[3].charAt(0);
+                String flipped = (first == 'A' ? 'B' : 'A') + parts[3].substring(1);
+                assertNull(signer.verify(parts[0] + "." + parts[1] + "." + parts[2] + "." + flipped));
+                assertNull(signer.verify(parts[0] + "." + parts[1] + "." + parts[2] + "."));
+                assertNull(signer.verify(parts[0] + "." + parts[1] + "." + parts[2]));
+                assertNull(signer.verify(""));
+                assertNull(signer.verify("test"));
+        }
+
+        @Test
+        void tokenSignedWithAnotherSecretIsRejected() {
+                String forged = signer(FORGED, "active").sign("test", EXPIRED_AT);
+
+                assertNull(signer.verify(forged));
+        }
+
+        @Test
+        void expiryIsLeftToTheCaller() {
+                long expiredAt = System.currentTimeMillis() - 1000;
+
+                TokenSigner.SignedToken signed = signer.verify(signer.sign("test", expiredAt));
+                assertNotNull(signed);
+                assertEquals(expiredAt, signed.expiredAt());
+        }
+
+        @Test
+        void retiredKeyIsAcceptedWhileInTheRing() {
+                String token = signer(RETIRED, "retired").sign("test", EXPIRED_AT);
+
+                TokenSigner.SignedToken signed = signer.verify(token);
+                assertNotNull(signed);
+                assertEquals("test", signed.username());
+
+                assertNull(signer(ACTIVE, "active").verify(token));
+        }
+
+        @Test
+        void emptyKeyRingIsRefused() {
+                assertThrows(IllegalStateException.class, () -> signer("", ""));
+                assertThrows(IllegalStateException.class, () -> signer(" , ", "active"));
+        }
+
+        @Test
+        void activeKeyMustBeInTheRing() {
+                assertThrows(IllegalStateException.class, () -> signer(RETIRED, "active"));
+        }
+
+        private static TokenSigner signer(String signingKeys, String activeKeyId) {
+                TokenSigner signer = new TokenSigner();
+                ReflectionTestUtils.setField(signer, "signingKeys", signingKeys);
+                ReflectionTestUtils.setField(signer, "activeKeyId", activeKeyId);
+                signer.init();
+                return signer;
+        }
+}